@@ -1,12 +1,18 @@
 package com.puzzle;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.EnumSet;
+import java.util.Map;
 
 import javax.servlet.DispatcherType;
 import javax.servlet.FilterRegistration;
 
 import org.eclipse.jetty.servlets.CrossOriginFilter;
 
+import com.codahale.metrics.Gauge;
+import com.puzzle.core.SLPortfolio;
+import com.puzzle.core.SLStrategy;
 import com.puzzle.resources.SlitherLinkAPI;
 import com.puzzle.resources.WebPagesResource;
 
@@ -43,7 +49,7 @@ public class SlitherLinkApplication extends Application<SlitherLinkConfiguration
 
     @Override
     public void run(final SlitherLinkConfiguration configuration,
-                    final Environment environment) {
+                    final Environment environment) throws IOException {
 		final FilterRegistration.Dynamic cors =
 				environment.servlets().addFilter("CORS", CrossOriginFilter.class);
 		
@@ -53,8 +59,13 @@ public class SlitherLinkApplication extends Application<SlitherLinkConfiguration
 		
 		cors.addMappingForUrlPatterns(EnumSet.allOf(DispatcherType.class), true, "/*");
 
+		SLPortfolio.configure(configuration.getPortfolioEngines(), configuration.getPortfolioThreads());
+		environment.metrics().register("portfolio-wins", (Gauge<Map<String, Long>>) SLPortfolio::getWins);
+		if (configuration.getStrategyTable() != null) {
+			SLStrategy.loadTable(Paths.get(configuration.getStrategyTable()));
+		}
      
-    	environment.jersey().register(new SlitherLinkAPI());
+    	environment.jersey().register(new SlitherLinkAPI(configuration.getSolverEngine()));
     	environment.jersey().register(new WebPagesResource());
     }
 
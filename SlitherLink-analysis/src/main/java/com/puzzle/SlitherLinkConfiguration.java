@@ -2,9 +2,64 @@ package com.puzzle;
 
 import io.dropwizard.Configuration;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.puzzle.core.SLEngineType;
+import com.puzzle.core.SLPortfolio;
+
+import java.util.List;
+
 import org.hibernate.validator.constraints.*;
 import javax.validation.constraints.*;
 
 public class SlitherLinkConfiguration extends Configuration {
-    // TODO: implement service configuration
+
+    @NotNull
+    private SLEngineType solverEngine = SLEngineType.CHOCO;
+
+    @NotNull
+    private List<SLEngineType> portfolioEngines = SLPortfolio.getDefaultMembers();
+
+    @Min(1)
+    private int portfolioThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private String strategyTable;
+
+    @JsonProperty
+    public SLEngineType getSolverEngine() {
+        return solverEngine;
+    }
+
+    @JsonProperty
+    public void setSolverEngine(SLEngineType solverEngine) {
+        this.solverEngine = solverEngine;
+    }
+
+    @JsonProperty
+    public List<SLEngineType> getPortfolioEngines() {
+        return portfolioEngines;
+    }
+
+    @JsonProperty
+    public void setPortfolioEngines(List<SLEngineType> portfolioEngines) {
+        this.portfolioEngines = portfolioEngines;
+    }
+
+    @JsonProperty
+    public int getPortfolioThreads() {
+        return portfolioThreads;
+    }
+
+    @JsonProperty
+    public void setPortfolioThreads(int portfolioThreads) {
+        this.portfolioThreads = portfolioThreads;
+    }
+
+    @JsonProperty
+    public String getStrategyTable() {
+        return strategyTable;
+    }
+
+    @JsonProperty
+    public void setStrategyTable(String strategyTable) {
+        this.strategyTable = strategyTable;
+    }
 }
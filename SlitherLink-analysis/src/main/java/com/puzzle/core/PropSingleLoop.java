@@ -0,0 +1,226 @@
+package com.puzzle.core;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateBool;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.BoolVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.util.ESat;
+
+/**
+ * Single loop propagator over the edge booleans of a grid.
+ *
+ * Every vertex gets degree 0 or 2. Chosen edges form paths whose two ends are
+ * stored backtrackably, so joining two paths is constant time and an edge that
+ * would close a path into a loop is removed unless that loop holds every chosen
+ * edge and is long enough.
+ */
+public class PropSingleLoop extends Propagator<BoolVar> {
+
+	private final SLGrid grid;
+	private final int minLoop; // sub-tour lbound
+
+	private final IStateInt[] pathEnd; // other end of the path, valid at path ends
+	private final IStateInt[] pathLength; // edges on the path, valid at path ends
+	private final IStateBool[] seen; // edge already processed
+	private final IStateInt yesCount;
+	private final IStateBool closed;
+
+	private final int[] queue; // edges to process in this propagation
+	private int queueSize;
+
+	public PropSingleLoop(BoolVar[] edges, SLGrid grid, int minLoop) {
+		super(edges, PropagatorPriority.LINEAR, true);
+		this.grid = grid;
+		this.minLoop = minLoop;
+		IEnvironment env = model.getEnvironment();
+		pathEnd = new IStateInt[grid.numVertices];
+		pathLength = new IStateInt[grid.numVertices];
+		for (int v = 0; v < grid.numVertices; v++) {
+			pathEnd[v] = env.makeInt(v);
+			pathLength[v] = env.makeInt(0);
+		}
+		seen = new IStateBool[grid.numEdges];
+		for (int e = 0; e < grid.numEdges; e++) {
+			seen[e] = env.makeBool(false);
+		}
+		yesCount = env.makeInt(0);
+		closed = env.makeBool(false);
+		queue = new int[grid.numEdges];
+	}
+
+	@Override
+	public int getPropagationConditions(int vIdx) {
+		return IntEventType.instantiation();
+	}
+
+	@Override
+	public void propagate(int evtmask) throws ContradictionException {
+		queueSize = 0;
+		for (int e = 0; e < vars.length; e++) {
+			if (vars[e].isInstantiated()) {
+				queue[queueSize++] = e;
+			}
+		}
+		for (int v = 0; v < grid.numVertices; v++) {
+			checkVertex(v);
+		}
+		drain();
+	}
+
+	@Override
+	public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+		queueSize = 0;
+		queue[queueSize++] = idxVarInProp;
+		drain();
+	}
+
+	private void drain() throws ContradictionException {
+		while (queueSize > 0) {
+			int e = queue[--queueSize];
+			if (seen[e].get()) {
+				continue;
+			}
+			seen[e].set(true);
+			checkVertex(grid.edgeFrom[e]);
+			checkVertex(grid.edgeTo[e]);
+			if (vars[e].getValue() == 1) {
+				join(e);
+			}
+		}
+	}
+
+	/**
+	 * a vertex has degree 0 or 2
+	 */
+	private void checkVertex(int v) throws ContradictionException {
+		int yes = 0;
+		int unknown = 0;
+		for (int k = 0; k < 4; k++) {
+			int e = grid.vertexEdge(v, k);
+			if (e == -1) {
+				break;
+			}
+			if (!vars[e].isInstantiated()) {
+				unknown++;
+			} else if (vars[e].getValue() == 1) {
+				yes++;
+			}
+		}
+		if (yes > 2 || (yes == 1 && unknown == 0)) {
+			fails();
+		}
+		if (unknown == 0) {
+			return;
+		}
+		if (yes == 2 || (yes == 0 && unknown == 1)) {
+			fill(v, 0);
+		} else if (yes == 1 && unknown == 1) {
+			fill(v, 1);
+		}
+	}
+
+	private void fill(int v, int val) throws ContradictionException {
+		for (int k = 0; k < 4; k++) {
+			int e = grid.vertexEdge(v, k);
+			if (e != -1 && !vars[e].isInstantiated()) {
+				set(e, val);
+			}
+		}
+	}
+
+	private void set(int e, int val) throws ContradictionException {
+		if (vars[e].instantiateTo(val, this)) {
+			queue[queueSize++] = e;
+		}
+	}
+
+	/**
+	 * joins the paths ending at both ends of a chosen edge
+	 */
+	private void join(int e) throws ContradictionException {
+		if (closed.get()) {
+			fails();
+		}
+		int u = grid.edgeFrom[e];
+		int v = grid.edgeTo[e];
+		int endU = pathEnd[u].get();
+		int endV = pathEnd[v].get();
+		yesCount.add(1);
+		if (endU == v) {
+			int length = pathLength[u].get() + 1;
+			if (length != yesCount.get() || length < minLoop) {
+				fails();
+			}
+			closed.set(true);
+			for (int f = 0; f < vars.length; f++) {
+				if (!vars[f].isInstantiated()) {
+					set(f, 0);
+				}
+			}
+			return;
+		}
+		int length = pathLength[u].get() + pathLength[v].get() + 1;
+		pathEnd[endU].set(endV);
+		pathEnd[endV].set(endU);
+		pathLength[endU].set(length);
+		pathLength[endV].set(length);
+
+		// closing this path now would leave other edges or be too short
+		if (length < yesCount.get() || length + 1 < minLoop) {
+			int f = grid.edge(endU, endV);
+			if (f != -1 && !vars[f].isInstantiated()) {
+				set(f, 0);
+			}
+		}
+	}
+
+	@Override
+	public ESat isEntailed() {
+		int yes = 0;
+		int start = -1;
+		for (int v = 0; v < grid.numVertices; v++) {
+			int degree = 0;
+			for (int k = 0; k < 4; k++) {
+				int e = grid.vertexEdge(v, k);
+				if (e == -1) {
+					break;
+				}
+				if (!vars[e].isInstantiated()) {
+					return ESat.UNDEFINED;
+				}
+				degree += vars[e].getValue();
+			}
+			if (degree != 0 && degree != 2) {
+				return ESat.FALSE;
+			}
+			if (degree == 2 && start == -1) {
+				start = v;
+			}
+			yes += degree;
+		}
+		if (start == -1) {
+			return ESat.FALSE;
+		}
+		// walk the loop through the first used vertex
+		int length = 0;
+		int prev = -1;
+		int cur = start;
+		do {
+			int next = -1;
+			for (int k = 0; k < 4 && next == -1; k++) {
+				int e = grid.vertexEdge(cur, k);
+				if (e != -1 && vars[e].getValue() == 1 && grid.other(e, cur) != prev) {
+					next = grid.other(e, cur);
+				}
+			}
+			prev = cur;
+			cur = next;
+			length++;
+		} while (cur != start);
+		return ESat.eval(length == yes / 2 && length >= minLoop);
+	}
+}
@@ -0,0 +1,521 @@
+package com.puzzle.core;
+
+import java.util.Arrays;
+
+/**
+ * Native SlitherLink solver working directly on edge states.
+ *
+ * Every one of the 2n(n-1) edges is unknown, yes or no. Clue and vertex degree
+ * rules are propagated on counters, open paths keep track of their two ends so
+ * a premature loop is rejected in constant time, and search backtracks over a
+ * trail. Nothing is allocated once the solver is built.
+ */
+public class SLBitSolve implements SLEngine {
+
+	private static final byte UNKNOWN = 0;
+	private static final byte YES = 1;
+	private static final byte NO = 2;
+
+	private int n; // puzzle dimension
+	private int l; // sub-tour lbound
+	private int numEdges;
+	private int numCells;
+
+	// topology shared through SLGrid
+	private SLGrid grid;
+	private int[] edgeFrom; // lower vertex of each edge
+	private int[] edgeTo; // higher vertex of each edge
+	private int[] edgeCells; // two cells per edge, -1 on the border
+	private int[] vertexEdges; // four edges per vertex, -1 on the border
+	private int[] vertexDegree;
+	private int[] cellEdges; // top, bottom, left, right per cell
+	private int[] clue; // flattened edge reqs
+
+	private byte[] state; // edge states
+	private int[] vertexYes;
+	private int[] vertexUnknown;
+	private int[] cellYes;
+	private int[] cellUnknown;
+	private int[] pathEnd; // other end of the path, valid at path ends
+	private int[] pathLength; // edges on the path, valid at path ends
+	private int yesCount;
+	private int closingEdge; // edge that closed the loop, -1 while open
+
+	private int[] trail; // assigned edges, doubles as propagation queue
+	private int trailSize;
+	private int queueHead;
+	private int[] undo; // saved path ends as vertex, end, length
+	private int undoSize;
+
+	private long[] solution; // edge bitset of the last loop found
+	private long[] excluded; // edge bitset of a loop not counted, null for none
+	private int solutionLength;
+	private int solutionCount;
+	private long nodeCount;
+	private volatile boolean cancelled;
+	private long solveNanos;
+
+	public SLBitSolve(int n, int[][] count) {
+		grid = SLGrid.of(n);
+		this.n = n;
+		l = (n * n) / 2;
+		numCells = grid.numCells;
+		numEdges = grid.numEdges;
+		edgeFrom = grid.edgeFrom;
+		edgeTo = grid.edgeTo;
+		edgeCells = grid.edgeCells;
+		vertexEdges = grid.vertexEdges;
+		vertexDegree = grid.vertexDegree;
+		cellEdges = grid.cellEdges;
+
+		clue = new int[numCells];
+		for (int i = 0; i < n - 1; i++) {
+			for (int j = 0; j < n - 1; j++) {
+				clue[i * (n - 1) + j] = count[i][j];
+			}
+		}
+
+		state = new byte[numEdges];
+		vertexYes = new int[n * n];
+		vertexUnknown = new int[n * n];
+		cellYes = new int[numCells];
+		cellUnknown = new int[numCells];
+		pathEnd = new int[n * n];
+		pathLength = new int[n * n];
+		trail = new int[numEdges];
+		undo = new int[6 * numEdges];
+		solution = new long[(numEdges + 63) / 64];
+	}
+
+	/**
+	 * pattern rules are part of the propagation of this engine
+	 */
+	@Override
+	public void rules() {
+	}
+
+	/**
+	 *
+	 * @return if solution found
+	 */
+	@Override
+	public boolean solve() {
+		run(1);
+		return solutionCount > 0;
+	}
+
+	/**
+	 *
+	 * @return solution to problem
+	 */
+	@Override
+	public int[] getSolution() {
+		if (solutionCount == 0) {
+			throw new IllegalStateException("no solution found");
+		}
+		return grid.loopSuccessors(solution);
+	}
+
+	/**
+	 *
+	 * @return bounded number of distinct loops
+	 */
+	@Override
+	public SLUniqueness uniqueness() {
+		run(2);
+		return SLUniqueness.of(solutionCount);
+	}
+
+	/**
+	 *
+	 * @return number of solutions
+	 */
+	@Override
+	public int findNumSolutions() {
+		run(Integer.MAX_VALUE);
+		return 2 * solutionCount;
+	}
+
+	/**
+	 * function for generation checks number of solutions and tour length, loops
+	 * are counted once per direction like the Choco model does
+	 *
+	 * @param limit
+	 * @return number solutions and tour length
+	 */
+	@Override
+	public int[] genSolutions(int limit) {
+		run((limit + 1) / 2);
+		if (solutionCount == 0) {
+			return new int[] { 0, 0 };
+		}
+		return new int[] { Math.min(2 * solutionCount, limit), solutionLength };
+	}
+
+	/**
+	 *
+	 * @return another loop than the reference, or null
+	 */
+	@Override
+	public int[] findAlternative(int[] reference) {
+		excluded = grid.loopEdges(reference);
+		run(1);
+		excluded = null;
+		return solutionCount > 0 ? getSolution() : null;
+	}
+
+	/**
+	 *
+	 * @return number of nodes
+	 */
+	@Override
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 *
+	 * @return solve time
+	 */
+	@Override
+	public float solveTime() {
+		float time = solveNanos / 1e9f;
+		System.out.println(time);
+		return time;
+	}
+
+	/**
+	 * prints solve statistics
+	 */
+	@Override
+	public void stats() {
+		System.out.println(String.format("- Bitboard solver: %d solutions, %d nodes, %.3fs", solutionCount, nodeCount,
+				solveNanos / 1e9));
+	}
+
+	/**
+	 * stops the search at the next node
+	 */
+	@Override
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * resets the edge states and searches for up to limit loops
+	 */
+	private void run(int limit) {
+		long start = System.nanoTime();
+		Arrays.fill(state, UNKNOWN);
+		Arrays.fill(vertexYes, 0);
+		Arrays.fill(cellYes, 0);
+		Arrays.fill(cellUnknown, 4);
+		for (int v = 0; v < n * n; v++) {
+			vertexUnknown[v] = vertexDegree[v];
+			pathEnd[v] = v;
+			pathLength[v] = 0;
+		}
+		yesCount = 0;
+		closingEdge = -1;
+		trailSize = 0;
+		queueHead = 0;
+		undoSize = 0;
+		solutionCount = 0;
+		solutionLength = 0;
+		nodeCount = 0;
+
+		boolean consistent = true;
+		for (int c = 0; c < numCells && consistent; c++) {
+			consistent = checkCell(c);
+		}
+		if (consistent) {
+			search(limit);
+		}
+		solveNanos = System.nanoTime() - start;
+	}
+
+	/**
+	 * depth first search with yes before no on every edge
+	 *
+	 * @return true once limit solutions are found
+	 */
+	private boolean search(int limit) {
+		if (!propagate()) {
+			return false;
+		}
+		int e = selectEdge();
+		if (e == -1) {
+			if (closingEdge == -1) {
+				return false;
+			}
+			for (int w = 0; w < solution.length; w++) {
+				solution[w] = 0;
+			}
+			for (int f = 0; f < numEdges; f++) {
+				if (state[f] == YES) {
+					solution[f >>> 6] |= 1L << f;
+				}
+			}
+			if (excluded != null && Arrays.equals(solution, excluded)) {
+				return false;
+			}
+			solutionLength = yesCount;
+			solutionCount++;
+			return solutionCount >= limit;
+		}
+		int trailMark = trailSize;
+		int undoMark = undoSize;
+
+		nodeCount++;
+		if (cancelled) {
+			return true;
+		}
+		if (assign(e, YES) && search(limit)) {
+			return true;
+		}
+		backtrack(trailMark, undoMark);
+
+		nodeCount++;
+		if (assign(e, NO) && search(limit)) {
+			return true;
+		}
+		backtrack(trailMark, undoMark);
+		return false;
+	}
+
+	/**
+	 * extends an open path first, then the tightest clue, then any edge
+	 *
+	 * @return unknown edge or -1 when every edge is assigned
+	 */
+	private int selectEdge() {
+		for (int v = 0; v < n * n; v++) {
+			if (vertexYes[v] == 1 && vertexUnknown[v] > 0) {
+				return firstUnknown(vertexEdges, 4 * v);
+			}
+		}
+		int best = -1;
+		int bestSlack = Integer.MAX_VALUE;
+		for (int c = 0; c < numCells; c++) {
+			if (clue[c] >= 0 && cellUnknown[c] > 0) {
+				int slack = Math.min(clue[c] - cellYes[c], cellUnknown[c] - clue[c] + cellYes[c]);
+				if (slack < bestSlack) {
+					best = c;
+					bestSlack = slack;
+				}
+			}
+		}
+		if (best != -1) {
+			return firstUnknown(cellEdges, 4 * best);
+		}
+		for (int e = 0; e < numEdges; e++) {
+			if (state[e] == UNKNOWN) {
+				return e;
+			}
+		}
+		return -1;
+	}
+
+	private int firstUnknown(int[] edges, int offset) {
+		for (int k = 0; k < 4; k++) {
+			int e = edges[offset + k];
+			if (e != -1 && state[e] == UNKNOWN) {
+				return e;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * sets an edge and queues it for propagation
+	 *
+	 * @return false on contradiction
+	 */
+	private boolean assign(int e, byte val) {
+		if (state[e] != UNKNOWN) {
+			return state[e] == val;
+		}
+		int u = edgeFrom[e];
+		int v = edgeTo[e];
+		if (val == YES && (closingEdge != -1 || vertexYes[u] == 2 || vertexYes[v] == 2)) {
+			return false;
+		}
+		state[e] = val;
+		trail[trailSize++] = e;
+		vertexUnknown[u]--;
+		vertexUnknown[v]--;
+		for (int k = 0; k < 2; k++) {
+			int c = edgeCells[2 * e + k];
+			if (c != -1) {
+				cellUnknown[c]--;
+				if (val == YES) {
+					cellYes[c]++;
+				}
+			}
+		}
+		if (val == NO) {
+			return true;
+		}
+		vertexYes[u]++;
+		vertexYes[v]++;
+		yesCount++;
+		return join(e, u, v);
+	}
+
+	/**
+	 * joins the paths ending in u and v
+	 *
+	 * @return false if this closes a loop that is not the whole solution
+	 */
+	private boolean join(int e, int u, int v) {
+		int endU = pathEnd[u];
+		int endV = pathEnd[v];
+		if (endU == v) {
+			int length = pathLength[u] + 1;
+			if (length != yesCount || length < l) {
+				return false;
+			}
+			closingEdge = e;
+			for (int f = 0; f < numEdges; f++) {
+				if (state[f] == UNKNOWN) {
+					assign(f, NO);
+				}
+			}
+			return true;
+		}
+		int length = pathLength[u] + pathLength[v] + 1;
+		save(endU);
+		save(endV);
+		pathEnd[endU] = endV;
+		pathEnd[endV] = endU;
+		pathLength[endU] = length;
+		pathLength[endV] = length;
+
+		// closing this path now would leave other edges or be too short
+		if (length < yesCount || length + 1 < l) {
+			for (int k = 0; k < 4; k++) {
+				int f = vertexEdges[4 * endU + k];
+				if (f != -1 && f != e && (edgeFrom[f] == endV || edgeTo[f] == endV)) {
+					return assign(f, NO);
+				}
+			}
+		}
+		return true;
+	}
+
+	private void save(int v) {
+		undo[undoSize++] = v;
+		undo[undoSize++] = pathEnd[v];
+		undo[undoSize++] = pathLength[v];
+	}
+
+	private void backtrack(int trailMark, int undoMark) {
+		while (trailSize > trailMark) {
+			int e = trail[--trailSize];
+			int u = edgeFrom[e];
+			int v = edgeTo[e];
+			boolean yes = state[e] == YES;
+			state[e] = UNKNOWN;
+			vertexUnknown[u]++;
+			vertexUnknown[v]++;
+			for (int k = 0; k < 2; k++) {
+				int c = edgeCells[2 * e + k];
+				if (c != -1) {
+					cellUnknown[c]++;
+					if (yes) {
+						cellYes[c]--;
+					}
+				}
+			}
+			if (yes) {
+				vertexYes[u]--;
+				vertexYes[v]--;
+				yesCount--;
+				if (closingEdge == e) {
+					closingEdge = -1;
+				}
+			}
+		}
+		while (undoSize > undoMark) {
+			undoSize -= 3;
+			int v = undo[undoSize];
+			pathEnd[v] = undo[undoSize + 1];
+			pathLength[v] = undo[undoSize + 2];
+		}
+		queueHead = trailSize;
+	}
+
+	/**
+	 * applies vertex and clue rules around every newly assigned edge
+	 *
+	 * @return false on contradiction
+	 */
+	private boolean propagate() {
+		while (queueHead < trailSize) {
+			int e = trail[queueHead++];
+			if (!checkVertex(edgeFrom[e]) || !checkVertex(edgeTo[e])) {
+				return false;
+			}
+			for (int k = 0; k < 2; k++) {
+				int c = edgeCells[2 * e + k];
+				if (c != -1 && !checkCell(c)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * a vertex has degree 0 or 2
+	 */
+	private boolean checkVertex(int v) {
+		int yes = vertexYes[v];
+		int unknown = vertexUnknown[v];
+		if (unknown == 0) {
+			return yes != 1;
+		}
+		if (yes == 2 || (yes == 0 && unknown == 1)) {
+			return fill(vertexEdges, 4 * v, NO);
+		}
+		if (yes == 1 && unknown == 1) {
+			return fill(vertexEdges, 4 * v, YES);
+		}
+		return true;
+	}
+
+	/**
+	 * a cell has exactly its clue of yes edges
+	 */
+	private boolean checkCell(int c) {
+		int k = clue[c];
+		if (k < 0) {
+			return true;
+		}
+		int yes = cellYes[c];
+		int unknown = cellUnknown[c];
+		if (yes > k || yes + unknown < k) {
+			return false;
+		}
+		if (unknown == 0) {
+			return true;
+		}
+		if (yes == k) {
+			return fill(cellEdges, 4 * c, NO);
+		}
+		if (yes + unknown == k) {
+			return fill(cellEdges, 4 * c, YES);
+		}
+		return true;
+	}
+
+	private boolean fill(int[] edges, int offset, byte val) {
+		for (int k = 0; k < 4; k++) {
+			int e = edges[offset + k];
+			if (e != -1 && state[e] == UNKNOWN && !assign(e, val)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,361 @@
+package com.puzzle.core;
+
+/**
+ * Human-style deduction rules applied to a fixpoint before any search.
+ *
+ * Works on the same unknown / yes / no edge states as SLBitSolve. Besides the
+ * clue and vertex degree counts it knows the classic patterns (adjacent and
+ * diagonal 3s, a 1 or a 3 at a corner that is empty or entered by a line) and
+ * never closes a loop that would leave other chosen edges outside it. Every rule is forced, so a puzzle the
+ * rules close has exactly one loop.
+ */
+public class SLDeduce {
+
+	public static final byte UNKNOWN = 0;
+	public static final byte YES = 1;
+	public static final byte NO = 2;
+
+	private int n; // puzzle dimension
+	private int l; // sub-tour lbound
+	private SLGrid grid; // shared topology
+	private int[][] count; // edge reqs
+
+	private byte[] state; // edge states
+	private int[] pathEnd; // other end of the path, valid at path ends
+	private int[] pathLength; // edges on the path, valid at path ends
+	private int yesCount;
+	private int unknownCount;
+	private boolean closed;
+	private boolean changed;
+
+	public SLDeduce(int n, int[][] count) {
+		this.n = n;
+		this.count = count;
+		l = (n * n) / 2;
+		grid = SLGrid.of(n);
+		state = new byte[grid.numEdges];
+		pathEnd = new int[grid.numVertices];
+		pathLength = new int[grid.numVertices];
+		for (int v = 0; v < grid.numVertices; v++) {
+			pathEnd[v] = v;
+		}
+		unknownCount = grid.numEdges;
+	}
+
+	/**
+	 * Applies the rules until none of them decides another edge
+	 *
+	 * @return false if the puzzle has no solution
+	 */
+	public boolean deduce() {
+		if (!patternRules()) {
+			return false;
+		}
+		do {
+			changed = false;
+			if (!cellRules() || !vertexRules() || !cornerRules() || !loopRules()) {
+				return false;
+			}
+		} while (changed);
+		return true;
+	}
+
+	/**
+	 *
+	 * @return if the rules closed the loop and decided every edge
+	 */
+	public boolean isSolved() {
+		return closed && unknownCount == 0;
+	}
+
+	/**
+	 *
+	 * @return number of edges the rules left open
+	 */
+	public int getUnknownCount() {
+		return unknownCount;
+	}
+
+	/**
+	 *
+	 * @return UNKNOWN, YES or NO for an edge numbered as in SLGrid
+	 */
+	public byte getEdgeState(int e) {
+		return state[e];
+	}
+
+	/**
+	 *
+	 * @return length of the closed loop, 0 while open
+	 */
+	public int getLoopLength() {
+		return closed ? yesCount : 0;
+	}
+
+	/**
+	 *
+	 * @return successor array of the closed loop
+	 */
+	public int[] getSolution() {
+		if (!isSolved()) {
+			throw new IllegalStateException("loop not closed by deduction");
+		}
+		long[] loop = new long[(grid.numEdges + 63) / 64];
+		for (int e = 0; e < grid.numEdges; e++) {
+			if (state[e] == YES) {
+				loop[e >>> 6] |= 1L << e;
+			}
+		}
+		return grid.loopSuccessors(loop);
+	}
+
+	/**
+	 * clue patterns that hold whatever the rest of the grid looks like
+	 */
+	private boolean patternRules() {
+		for (int i = 0; i < n - 1; i++) {
+			for (int j = 0; j < n - 1; j++) {
+				if (count[i][j] != 3) {
+					continue;
+				}
+				// 3 beside a 3: the three parallel lines, not the middle line's extensions
+				if (j + 1 < n - 1 && count[i][j + 1] == 3) {
+					if (!set(grid.vertical(i, j), YES) || !set(grid.vertical(i, j + 1), YES)
+							|| !set(grid.vertical(i, j + 2), YES)
+							|| (i > 0 && !set(grid.vertical(i - 1, j + 1), NO))
+							|| (i + 2 < n && !set(grid.vertical(i + 1, j + 1), NO))) {
+						return false;
+					}
+				}
+				if (i + 1 < n - 1 && count[i + 1][j] == 3) {
+					if (!set(grid.horizontal(i, j), YES) || !set(grid.horizontal(i + 1, j), YES)
+							|| !set(grid.horizontal(i + 2, j), YES)
+							|| (j > 0 && !set(grid.horizontal(i + 1, j - 1), NO))
+							|| (j + 2 < n && !set(grid.horizontal(i + 1, j + 1), NO))) {
+						return false;
+					}
+				}
+				// diagonal 3s: the outer corners of both
+				if (i + 1 < n - 1 && j + 1 < n - 1 && count[i + 1][j + 1] == 3) {
+					if (!set(grid.horizontal(i, j), YES) || !set(grid.vertical(i, j), YES)
+							|| !set(grid.horizontal(i + 2, j + 1), YES) || !set(grid.vertical(i + 1, j + 2), YES)) {
+						return false;
+					}
+				}
+				if (i + 1 < n - 1 && j > 0 && count[i + 1][j - 1] == 3) {
+					if (!set(grid.horizontal(i, j), YES) || !set(grid.vertical(i, j + 1), YES)
+							|| !set(grid.horizontal(i + 2, j - 1), YES) || !set(grid.vertical(i + 1, j - 1), YES)) {
+						return false;
+					}
+				}
+			}
+		}
+		// a grid corner is turned or skipped: a 1 skips it, a 3 turns it
+		int last = n - 2;
+		return corner(count[0][0], grid.horizontal(0, 0), grid.vertical(0, 0))
+				&& corner(count[0][last], grid.horizontal(0, last), grid.vertical(0, last + 1))
+				&& corner(count[last][0], grid.horizontal(last + 1, 0), grid.vertical(last, 0))
+				&& corner(count[last][last], grid.horizontal(last + 1, last), grid.vertical(last, last + 1));
+	}
+
+	private boolean corner(int clue, int e, int f) {
+		if (clue == 1) {
+			return set(e, NO) && set(f, NO);
+		}
+		if (clue == 3) {
+			return set(e, YES) && set(f, YES);
+		}
+		return true;
+	}
+
+	/**
+	 * a clue takes all its open edges once it needs them, none once it is met
+	 */
+	private boolean cellRules() {
+		for (int c = 0; c < grid.numCells; c++) {
+			int clue = count[c / (n - 1)][c % (n - 1)];
+			if (clue < 0) {
+				continue;
+			}
+			int yes = 0;
+			int unknown = 0;
+			for (int k = 0; k < 4; k++) {
+				byte s = state[grid.cellEdge(c, k)];
+				yes += s == YES ? 1 : 0;
+				unknown += s == UNKNOWN ? 1 : 0;
+			}
+			if (yes > clue || yes + unknown < clue) {
+				return false;
+			}
+			if (unknown > 0 && (yes == clue || yes + unknown == clue)) {
+				byte val = yes == clue ? NO : YES;
+				for (int k = 0; k < 4; k++) {
+					int e = grid.cellEdge(c, k);
+					if (state[e] == UNKNOWN && !set(e, val)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * a 1 or a 3 seen from each corner: with no line outside the corner both
+	 * of its edges there match, with a line entering the corner exactly one
+	 * of them is used and the two far edges follow
+	 */
+	private boolean cornerRules() {
+		for (int c = 0; c < grid.numCells; c++) {
+			int clue = count[c / (n - 1)][c % (n - 1)];
+			if (clue != 1 && clue != 3) {
+				continue;
+			}
+			int top = grid.cellEdge(c, 0);
+			int bottom = grid.cellEdge(c, 1);
+			int left = grid.cellEdge(c, 2);
+			int right = grid.cellEdge(c, 3);
+			// corner vertex, its two cell edges and the two far edges
+			int[][] corners = new int[][] { { grid.edgeFrom[top], top, left, bottom, right },
+					{ grid.edgeTo[top], top, right, bottom, left },
+					{ grid.edgeFrom[bottom], bottom, left, top, right },
+					{ grid.edgeTo[bottom], bottom, right, top, left } };
+			for (int[] k : corners) {
+				int v = k[0];
+				int outYes = 0;
+				int outUnknown = 0;
+				for (int d = 0; d < grid.vertexDegree[v]; d++) {
+					int e = grid.vertexEdge(v, d);
+					if (e != k[1] && e != k[2]) {
+						outYes += state[e] == YES ? 1 : 0;
+						outUnknown += state[e] == UNKNOWN ? 1 : 0;
+					}
+				}
+				byte val = clue == 3 ? YES : NO;
+				if (outYes == 0 && outUnknown == 0) {
+					if (!set(k[1], val) || !set(k[2], val)) {
+						return false;
+					}
+				} else if (outYes == 1 && outUnknown == 0) {
+					if (!set(k[3], val) || !set(k[4], val)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * a vertex has degree 0 or 2
+	 */
+	private boolean vertexRules() {
+		for (int v = 0; v < grid.numVertices; v++) {
+			int yes = 0;
+			int unknown = 0;
+			for (int k = 0; k < grid.vertexDegree[v]; k++) {
+				byte s = state[grid.vertexEdge(v, k)];
+				yes += s == YES ? 1 : 0;
+				unknown += s == UNKNOWN ? 1 : 0;
+			}
+			if (yes > 2 || (yes == 1 && unknown == 0)) {
+				return false;
+			}
+			byte val;
+			if (unknown == 0) {
+				continue;
+			} else if (yes == 2 || (yes == 0 && unknown == 1)) {
+				val = NO;
+			} else if (yes == 1 && unknown == 1) {
+				val = YES;
+			} else {
+				continue;
+			}
+			for (int k = 0; k < grid.vertexDegree[v]; k++) {
+				int e = grid.vertexEdge(v, k);
+				if (state[e] == UNKNOWN && !set(e, val)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * the edge joining both ends of a path stays empty while the path is not
+	 * the whole loop
+	 */
+	private boolean loopRules() {
+		for (int v = 0; v < grid.numVertices; v++) {
+			int end = pathEnd[v];
+			if (end <= v) {
+				continue;
+			}
+			int e = grid.edge(v, end);
+			if (e != -1 && state[e] == UNKNOWN && (pathLength[v] < yesCount || pathLength[v] + 1 < l)) {
+				if (!set(e, NO)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 *
+	 * @return false if the edge was already decided the other way
+	 */
+	private boolean set(int e, byte val) {
+		if (state[e] == val) {
+			return true;
+		}
+		if (state[e] != UNKNOWN) {
+			return false;
+		}
+		state[e] = val;
+		unknownCount--;
+		changed = true;
+		return val == NO || join(e);
+	}
+
+	/**
+	 * joins the paths ending at both ends of a chosen edge
+	 */
+	private boolean join(int e) {
+		if (closed) {
+			return false;
+		}
+		int u = grid.edgeFrom[e];
+		int v = grid.edgeTo[e];
+		int endU = pathEnd[u];
+		int endV = pathEnd[v];
+		yesCount++;
+		if (endU == v) {
+			int length = pathLength[u] + 1;
+			if (length != yesCount || length < l) {
+				return false;
+			}
+			closed = true;
+			pathEnd[u] = u;
+			pathEnd[v] = v;
+			for (int f = 0; f < grid.numEdges; f++) {
+				if (state[f] == UNKNOWN && !set(f, NO)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		int length = pathLength[u] + pathLength[v] + 1;
+		if (endU != u) {
+			pathEnd[u] = u;
+		}
+		if (endV != v) {
+			pathEnd[v] = v;
+		}
+		pathEnd[endU] = endV;
+		pathEnd[endV] = endU;
+		pathLength[endU] = length;
+		pathLength[endV] = length;
+		return true;
+	}
+}
@@ -0,0 +1,81 @@
+package com.puzzle.core;
+
+/**
+ * Common contract of the SlitherLink solvers so the API and the generators can
+ * switch engines by configuration
+ */
+public interface SLEngine {
+
+	/**
+	 * applies additional pattern rules before solving, where the engine supports
+	 * them
+	 */
+	void rules();
+
+	/**
+	 *
+	 * @return if solution found
+	 */
+	boolean solve();
+
+	/**
+	 *
+	 * @return solution to problem as a vertex successor array
+	 */
+	int[] getSolution();
+
+	/**
+	 * counts solutions, each loop is counted once per traversal direction
+	 *
+	 * @return number of solutions
+	 */
+	int findNumSolutions();
+
+	/**
+	 * function for generation checks number of solutions and tour length
+	 *
+	 * @param limit
+	 * @return number solutions and tour length
+	 */
+	int[] genSolutions(int limit);
+
+	/**
+	 * Checks whether the puzzle has no, one or several loops, stopping at the
+	 * second distinct loop. getSolution returns a loop found when there is one.
+	 *
+	 * @return bounded number of distinct loops
+	 */
+	SLUniqueness uniqueness();
+
+	/**
+	 * Looks for a loop other than the known one, which turns a uniqueness check
+	 * into a single satisfiability check when the intended loop is known
+	 *
+	 * @param reference successor array of a loop meeting the clues
+	 * @return successor array of another loop, or null when there is none
+	 */
+	int[] findAlternative(int[] reference);
+
+	/**
+	 *
+	 * @return number of nodes
+	 */
+	long getNodeCount();
+
+	/**
+	 *
+	 * @return solve time
+	 */
+	float solveTime();
+
+	/**
+	 * prints solve statistics
+	 */
+	void stats();
+
+	/**
+	 * Stops a search running in another thread. The interrupted call returns
+	 * early and its answer is not to be trusted.
+	 */
+	void cancel();
+}
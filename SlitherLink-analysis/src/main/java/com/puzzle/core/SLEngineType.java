@@ -0,0 +1,98 @@
+package com.puzzle.core;
+
+/**
+ * Available solver engines
+ */
+public enum SLEngineType {
+
+	/**
+	 * Choco model over the vertex successor array
+	 */
+	CHOCO {
+		@Override
+		public SLEngine create(int n, int[][] count) {
+			SLSolve sl = new SLSolve(n, count, false);
+			sl.presolve();
+			return sl;
+		}
+	},
+
+	/**
+	 * Choco model over edge booleans with the single loop propagator
+	 */
+	CHOCO_LOOP {
+		@Override
+		public SLEngine create(int n, int[][] count) {
+			SLSolve sl = new SLSolve(n, count, false, SLLoopModel.PROPAGATOR);
+			sl.presolve();
+			return sl;
+		}
+	},
+
+	/**
+	 * CDCL SAT solver with loop cuts added lazily
+	 */
+	SAT {
+		@Override
+		public SLEngine create(int n, int[][] count) {
+			return new SLSatSolve(n, count);
+		}
+	},
+
+	/**
+	 * native solver over primitive edge states
+	 */
+	BITBOARD {
+		@Override
+		public SLEngine create(int n, int[][] count) {
+			return new SLBitSolve(n, count);
+		}
+	},
+
+	/**
+	 * races the portfolio members on a shared pool, first answer wins
+	 */
+	PORTFOLIO {
+		@Override
+		public SLEngine create(int n, int[][] count) {
+			return new SLPortfolio(n, count);
+		}
+	};
+
+	/**
+	 * Vertex dimension from which grids take the large-grid path, past 20x20
+	 * cells the Choco and bitboard searches run out of time
+	 */
+	public static final int LARGE_GRID = 22;
+
+	/**
+	 * 
+	 * @param n puzzle dimension
+	 * @return if the grid takes the large-grid path
+	 */
+	public static boolean isLargeGrid(int n) {
+		return n >= LARGE_GRID;
+	}
+
+	/**
+	 * Engine to use on a grid: on the large-grid path the SAT engine, whose
+	 * memory grows linearly in the cells, stands in for the searches that do
+	 * not scale. A portfolio races SAT already and stays.
+	 * 
+	 * @param n puzzle dimension
+	 * @return engine for the grid
+	 */
+	public SLEngineType forGrid(int n) {
+		return isLargeGrid(n) && this != SAT && this != PORTFOLIO ? SAT : this;
+	}
+
+	/**
+	 * Builds a solver of this type for a puzzle, Choco models with the edges
+	 * the deduction rules decide already fixed
+	 *
+	 * @param n     puzzle dimension
+	 * @param count edge reqs
+	 * @return solver
+	 */
+	public abstract SLEngine create(int n, int[][] count);
+}
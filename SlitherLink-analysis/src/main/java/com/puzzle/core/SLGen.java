@@ -2,10 +2,9 @@ package com.puzzle.core;
 
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
-import org.chocosolver.solver.constraints.extension.Tuples;
 import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
-import org.chocosolver.util.tools.ArrayUtils;
 
 import java.util.ArrayList;
 import java.util.Random;
@@ -21,12 +20,19 @@ public class SLGen {
 	private Random rand; // random number generator
 	private long seed; // gen specific puzzle
 	private String diff; // puzzle difficulty specified
+	private SLEngineType engine = SLEngineType.CHOCO; // uniqueness checks
 
 	private int[][] count; // edge reqs
-	private IntVar[][] a; // adjacency matrix
-	private IntVar[][] v; // vertex matrix
+	private int[] loop; // loop the full count was taken from, null when unknown
+	private SLReduction reduction; // checks of the current reduction, null outside one
+	private boolean incremental = true; // reductions check removals on one model
+	private SLGrid grid; // shared topology
+	private BoolVar[] arcs; // arc 2e runs along edge e from its lower vertex, 2e + 1 back
 	private IntVar[] tour; // sub-tour array
 	private boolean trace;
+	private boolean largeGrid; // loops searched with restarts and nogood recording
+	private SLRestarts restarts; // counters of the last loop search in large-grid mode
+	private SLProgress progress; // listener of generate, null for none
 
 	public SLGen(int n, String diff, long seed, Boolean trace) {
 		this(n, diff, trace);
@@ -41,62 +47,41 @@ public class SLGen {
 		this.diff = diff;
 
 		rand = new Random(seed);
-		model = new Model("SL Solver");
-		solver = model.getSolver();
 		this.n = n;
 		m = n * n;
 		l = (3 * m) / 4;
-		a = new IntVar[n * n][n * n];
-		v = new IntVar[n][n];
+		grid = SLGrid.of(n);
 		count = new int[n - 1][n - 1];
 
-		// create node grid
-		// define domains
-		for (int i = 0; i < n; i++) {
-			for (int j = 0; j < n; j++) {
-				ArrayList<Integer> dom = new ArrayList<>();
-				if (i > 0)
-					dom.add((i - 1) * n + j); // above
-				if (j > 0)
-					dom.add(i * n + j - 1); // left
-				dom.add(i * n + j); // itself
-				if (j < n - 1)
-					dom.add(i * n + j + 1);// right
-				if (i < n - 1)
-					dom.add((i + 1) * n + j);// below
-
-				int[] domain = new int[dom.size()];
-				int k = 0;
-				for (int x : dom) {
-					domain[k++] = x;
-				}
-				v[i][j] = model.intVar("v[" + i + "]" + "[" + j + "]", domain);
+		// fill count matrix
+		for (int i = 0; i < n - 1; i++) {
+			for (int j = 0; j < n - 1; j++) {
+				count[i][j] = -1;
 			}
 		}
+		if (SLEngineType.isLargeGrid(n)) {
+			return; // the large-grid path searches loops without the model
+		}
+		model = new Model("SL Solver");
+		solver = model.getSolver();
+		tour = new IntVar[n * n];
+
+		// create node grid, each vertex points to a neighbour or itself
+		for (int i = 0; i < n * n; i++) {
+			tour[i] = model.intVar(grid.successors(i));
+		}
 
 		// subtour constraint
-		IntVar tourLength = model.intVar("tour length", l, m);
-		tour = ArrayUtils.flatten(v);
+		IntVar tourLength = model.intVar(l, m);
 
 		model.subCircuit(tour, 0, tourLength).post();
 
-		// Link tour with adjacency matrix
-		for (int i = 0; i < n * n; i++) {
-			int ub = tour[i].getUB();
-			for (int j = tour[i].getLB(); j <= ub; j = tour[i].nextValue(j))
-				if (i != j) {
-					a[i][j] = model.intVar("A[" + i + "][" + j + "]", 0, 1);
-					model.ifOnlyIf(model.arithm(a[i][j], "=", 1), model.arithm(tour[i], "=", j));
-					// efficient search
-					model.ifThen(model.arithm(tour[i], "=", j), model.arithm(tour[j], "!=", i));
-				}
-		}
-
-		// fill count matrix
-		for (int i = 0; i < n - 1; i++) {
-			for (int j = 0; j < n - 1; j++) {
-				count[i][j] = -1;
-			}
+		// arcs are views on the tour, an edge is used in one direction at most
+		arcs = new BoolVar[2 * grid.numEdges];
+		for (int e = 0; e < grid.numEdges; e++) {
+			arcs[2 * e] = model.intEqView(tour[grid.edgeFrom[e]], grid.edgeTo[e]);
+			arcs[2 * e + 1] = model.intEqView(tour[grid.edgeTo[e]], grid.edgeFrom[e]);
+			model.arithm(arcs[2 * e], "+", arcs[2 * e + 1], "<=", 1).post();
 		}
 
 	}
@@ -119,6 +104,78 @@ public class SLGen {
 		return diff;
 	}
 
+	/**
+	 * Sets the solver engine used for uniqueness checks during reduction
+	 * 
+	 * @param engine
+	 */
+	public void setEngine(SLEngineType engine) {
+		this.engine = engine;
+	}
+
+	/**
+	 * Returns the solver engine used for uniqueness checks
+	 * 
+	 * @return engine
+	 */
+	protected SLEngineType getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Counts solutions up to 3 like genSolutions, settling the puzzle with the
+	 * deduction rules first when they can. When the loop the clues came from is
+	 * known the engine only looks for another loop, else it stops at the second
+	 * distinct loop instead of enumerating both directions of each. During a
+	 * reduction from generate, puzzles within the full clues are checked on
+	 * the model of its reduction session.
+	 * 
+	 * @param puzzle
+	 * @return number solutions and tour length
+	 */
+	protected int[] countSolutions(int[][] puzzle) {
+		if (reduction != null && reduction.covers(puzzle)) {
+			return reduction.countSolutions(puzzle);
+		}
+		int dim = puzzle.length + 1;
+		SLDeduce deduce = new SLDeduce(dim, puzzle);
+		if (!deduce.deduce()) {
+			return new int[] { 0, 0 };
+		}
+		if (deduce.isSolved()) {
+			return new int[] { 2, deduce.getLoopLength() }; // one loop, both directions
+		}
+		SLEngine sl = engine.forGrid(dim).create(dim, puzzle);
+		if (loop != null && loop.length == dim * dim) {
+			return sl.findAlternative(loop) == null ? new int[] { 2, loopLength(loop) } : new int[] { 3, 0 };
+		}
+		switch (sl.uniqueness()) {
+		case UNIQUE:
+			return new int[] { 2, loopLength(sl.getSolution()) };
+		case MULTIPLE:
+			return new int[] { 3, 0 };
+		default:
+			return new int[] { 0, 0 };
+		}
+	}
+
+	private static int loopLength(int[] successor) {
+		int length = 0;
+		for (int v = 0; v < successor.length; v++) {
+			length += successor[v] != v ? 1 : 0;
+		}
+		return length;
+	}
+
+	/**
+	 * 
+	 * @return arc variable from one vertex to an adjacent one
+	 */
+	private BoolVar arc(int from, int to) {
+		int e = grid.edge(from, to);
+		return arcs[2 * e + (from < to ? 0 : 1)];
+	}
+
 	/**
 	 * Private method to set the count of generator before using the generator solve
 	 * method
@@ -131,17 +188,17 @@ public class SLGen {
 		for (int i = 0; i < n - 1; i++) {
 			for (int j = 0; j < n - 1; j++) {
 				if (count[i][j] > -1) {
-					IntVar[] e = new IntVar[] { a[(i * n) + j][(i * n) + j + 1], // top
-							a[(i * n) + j + 1][(i * n) + j], // top
+					IntVar[] e = new IntVar[] { arc((i * n) + j, (i * n) + j + 1), // top
+							arc((i * n) + j + 1, (i * n) + j), // top
 
-							a[(i * n) + j + n][(i * n) + j + n + 1], // bottom
-							a[(i * n) + j + n + 1][(i * n) + j + n], // bottom
+							arc((i * n) + j + n, (i * n) + j + n + 1), // bottom
+							arc((i * n) + j + n + 1, (i * n) + j + n), // bottom
 
-							a[(i * n) + j][(i * n) + j + n], // left
-							a[(i * n) + j + n][(i * n) + j], // left
+							arc((i * n) + j, (i * n) + j + n), // left
+							arc((i * n) + j + n, (i * n) + j), // left
 
-							a[(i * n) + j + 1][(i * n) + j + n + 1], // right
-							a[(i * n) + j + n + 1][(i * n) + j + 1] // right
+							arc((i * n) + j + 1, (i * n) + j + n + 1), // right
+							arc((i * n) + j + n + 1, (i * n) + j + 1) // right
 					};
 					model.sum(e, "=", count[i][j]).post();
 				}
@@ -152,11 +209,14 @@ public class SLGen {
 	}
 
 	/**
-	 * method to generate a puzzle
+	 * method to generate a puzzle, large grids on the large-grid path
 	 * 
 	 * @return
 	 */
 	public int[][] generate() {
+		if (SLEngineType.isLargeGrid(n)) {
+			return generateLarge();
+		}
 		int[][] randCount = new int[n - 1][n - 1];
 		for (int i = 0; i < n - 1; i++) {
 			for (int j = 0; j < n - 1; j++) {
@@ -180,9 +240,12 @@ public class SLGen {
 			System.out.println();
 		}
 		int mulFullLoop = 0;
+		int attempts = 0;
 		while (solNum != 2) {
 			mulFullLoop++;
+			progress(SLProgress.LOOP, ++attempts, 0, 0);
 			newGen = new SLGen(n, diff, false);
+			newGen.largeGrid = largeGrid;
 			newGen.setCount(randCount);
 			solNum = newGen.solve();
 
@@ -215,10 +278,100 @@ public class SLGen {
 			}
 
 		}
-		return reducePuzzle(diff, newGen.getCount());
+		return reduce(newGen.getCount(), newGen.loop);
 
 	}
 
+	/**
+	 * Large-grid path of generate: the SAT engine searches a loop through random
+	 * clues, whose memory grows linearly in the cells where the Choco model of
+	 * the successor array does not finish, and the reduction checks run on
+	 * SAT too, see SLEngineType.forGrid
+	 * 
+	 * @return count matrix
+	 */
+	private int[][] generateLarge() {
+		int attempts = 0;
+		while (true) {
+			progress(SLProgress.LOOP, ++attempts, 0, 0);
+			int[][] randCount = new int[n - 1][n - 1];
+			for (int i = 0; i < n - 1; i++) {
+				for (int j = 0; j < n - 1; j++) {
+					randCount[i][j] = -1;
+				}
+			}
+			for (int i = 0; i < n - 1; i++) {
+				int a = rand.nextInt(n - 1);
+				int b = rand.nextInt(n - 1);
+				randCount[a][b] = rand.nextInt(4);
+			}
+			SLSatSolve sat = new SLSatSolve(n, randCount);
+			if (sat.solve() && loopLength(sat.getSolution()) >= l) {
+				int[] found = sat.getSolution();
+				return reduce(grid.loopClues(found), found);
+			}
+		}
+	}
+
+	/**
+	 * Sets the listener of generate
+	 * 
+	 * @param progress listener, null for none
+	 */
+	public void setProgress(SLProgress progress) {
+		this.progress = progress;
+	}
+
+	/**
+	 * reports progress to the listener, if any
+	 */
+	protected void progress(String phase, int done, int total, int clues) {
+		if (progress != null) {
+			progress.progress(phase, done, total, clues);
+		}
+	}
+
+	/**
+	 * Reduces the full clues of a loop to the difficulty, checking removals in
+	 * a reduction session when incremental and the engine builds Choco models
+	 * 
+	 * @param fullCount clues of every cell
+	 * @param loop      successor array of the loop the clues were taken from
+	 * @return count matrix
+	 */
+	public int[][] reduce(int[][] fullCount, int[] loop) {
+		this.loop = loop;
+		reduction = incremental ? SLReduction.open(engine.forGrid(n), n, fullCount, loop) : null;
+		try {
+			return reducePuzzle(diff, fullCount);
+		} finally {
+			if (reduction != null && trace) {
+				reduction.stats();
+			}
+			reduction = null;
+		}
+	}
+
+	/**
+	 * Sets whether reductions check removals on one reusable model, or on a new
+	 * engine per check
+	 * 
+	 * @param incremental
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Sets whether the loop search of generate restarts with nogood recording,
+	 * for grids where most attempts would otherwise run into the time limit
+	 * 
+	 * @param largeGrid
+	 */
+	public void setLargeGrid(boolean largeGrid) {
+		this.largeGrid = largeGrid;
+	}
+
 	private int[][] getCount() {
 		return count;
 	}
@@ -231,18 +384,47 @@ public class SLGen {
 	private int solve() {
 		int[][] fullCount = new int[0][];
 		solver.setSearch(Search.minDomLBSearch(tour)); // fail-first
+		if (largeGrid) {
+			restarts = SLRestarts.plug(solver, tour, true);
+		}
 		solver.limitSolution(3);
 		solver.limitTime("5 s");
 		int numSol = 0;
 		while (solver.solve()) {
 			fullCount = getFullCount();
+			loop = new int[m];
+			for (int i = 0; i < m; i++) {
+				loop[i] = tour[i].getValue();
+			}
 			numSol++;
 		}
 		solver.printShortStatistics();
+		if (restarts != null) {
+			System.out.println("- Large grid: " + restarts);
+		}
 		count = fullCount;
 		return numSol;
 	}
 
+	/**
+	 * One loop search of generate through random clues, on a new generator
+	 * 
+	 * @param randCount random clues
+	 * @return number of solutions found, up to 3
+	 */
+	int attempt(int[][] randCount) {
+		setCount(randCount);
+		return solve();
+	}
+
+	/**
+	 * 
+	 * @return if the last loop search stopped on the time limit
+	 */
+	boolean isStopped() {
+		return solver.isStopCriterionMet();
+	}
+
 	/**
 	 * Fill all faces in the grid with edge numbers
 	 * 
@@ -252,15 +434,15 @@ public class SLGen {
 		for (int i = 0; i < n - 1; i++) {
 			for (int j = 0; j < n - 1; j++) {
 
-				int e = a[(i * n) + j][(i * n) + j + 1].getValue() + a[(i * n) + j + 1][(i * n) + j].getValue() +
+				int e = arc((i * n) + j, (i * n) + j + 1).getValue() + arc((i * n) + j + 1, (i * n) + j).getValue() +
 
-						a[(i * n) + j + n][(i * n) + j + n + 1].getValue()
-						+ a[(i * n) + j + n + 1][(i * n) + j + n].getValue() +
+						arc((i * n) + j + n, (i * n) + j + n + 1).getValue()
+						+ arc((i * n) + j + n + 1, (i * n) + j + n).getValue() +
 
-						a[(i * n) + j][(i * n) + j + n].getValue() + a[(i * n) + j + n][(i * n) + j].getValue() +
+						arc((i * n) + j, (i * n) + j + n).getValue() + arc((i * n) + j + n, (i * n) + j).getValue() +
 
-						a[(i * n) + j + 1][(i * n) + j + n + 1].getValue()
-						+ a[(i * n) + j + n + 1][(i * n) + j + 1].getValue();
+						arc((i * n) + j + 1, (i * n) + j + n + 1).getValue()
+						+ arc((i * n) + j + n + 1, (i * n) + j + 1).getValue();
 
 				count[i][j] = e;
 			}
@@ -293,8 +475,7 @@ public class SLGen {
 			int val2 = rand.nextInt(n - 1);
 			int temp = oldCount[val1][val2];
 			oldCount[val1][val2] = -1;
-			SLSolve sl2 = new SLSolve(n, oldCount, false);
-			int[] ans2 = sl2.genSolutions(3);
+			int[] ans2 = countSolutions(oldCount);
 			int num2 = ans2[0];
 			int size2 = ans2[1];
 
@@ -420,9 +601,11 @@ public class SLGen {
 		
 		// Remove clues until we reach target range
 		int currentClues = countNonEmptyClues(working);
+		int tried = 0;
 		
 		for (ClueCandidate candidate : candidates) {
 			if (currentClues <= maxClues) break;
+			progress(SLProgress.REDUCE, tried++, candidates.size(), currentClues);
 			
 			// Try removing this clue
 			int originalValue = working[candidate.row][candidate.col];
@@ -440,6 +623,7 @@ public class SLGen {
 		}
 		
 		int finalClues = countNonEmptyClues(working);
+		progress(SLProgress.REDUCE, tried, candidates.size(), finalClues);
 		System.out.println(String.format("Final puzzle: %d clues (%.1f%% density)", 
 			finalClues, (finalClues * 100.0) / ((n-1) * (n-1))));
 		
@@ -484,8 +668,7 @@ public class SLGen {
 	 */
 	private boolean validatePuzzleSolvability(int[][] puzzle) {
 		try {
-			SLSolve solver = new SLSolve(n, puzzle, false);
-			int[] result = solver.genSolutions(3);
+			int[] result = countSolutions(puzzle);
 			return result[0] == 2; // Should have exactly 2 solutions (forward and reverse)
 		} catch (Exception e) {
 			return false;
@@ -759,282 +942,10 @@ public class SLGen {
 	 * Apply rules before solving
 	 */
 	public void rules() {
-		Tuples LC = new Tuples();
-		LC.add(1, 1, 1, 0, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 1, 0, 1, 1);
-		LC.add(0, 0, 0, 0, 1, 1, 1, 0);
-		LC.add(0, 0, 0, 0, 0, 0, 0, 0);
-		LC.add(1, 0, 0, 0, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 1, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 0, 0, 1);
-		LC.add(0, 0, 0, 0, 0, 1, 0, 1);
-		LC.add(0, 1, 1, 1, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 1, 0, 0, 0, 0);
-		LC.add(1, 0, 0, 1, 0, 0, 0, 0);
-		LC.add(0, 0, 1, 0, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 0, 1, 0);
-		LC.add(0, 0, 0, 0, 1, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 1, 1, 0);
-		LC.add(0, 0, 0, 0, 1, 0, 0, 1);
-		LC.add(0, 0, 0, 0, 1, 1, 0, 0);
-		LC.add(1, 0, 1, 0, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 0, 1, 1);
-		LC.add(0, 0, 0, 0, 1, 1, 0, 1);
-		LC.add(0, 0, 1, 1, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 1, 1, 1);
-		LC.add(0, 1, 0, 0, 0, 0, 0, 0);
-		LC.add(1, 0, 1, 1, 0, 0, 0, 0);
-		LC.add(1, 1, 0, 0, 0, 0, 0, 0);
-		LC.add(0, 1, 0, 1, 0, 0, 0, 0);
-		LC.add(1, 1, 0, 1, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 1, 0, 1, 0);
-		LC.add(0, 1, 1, 0, 0, 0, 0, 0);
-
-		for (int i = n; i < n - 1; i += n) {
-			IntVar[] adjLC = new IntVar[] { a[i][i + 1], a[i + 1][(i + n) + 1], a[(i + n) + 1][i + n], a[i + n][i],
-					a[i][i + n], a[i + n][(i + n) + 1], a[(i + n) + 1][i + 1], a[i + 1][i] };
-			model.table(adjLC, LC).post();
-
-		}
-
-		Tuples RC = new Tuples();
-		RC.add(1, 1, 1, 0, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 1, 1, 1, 0);
-		RC.add(0, 0, 0, 0, 1, 0, 1, 1);
-		RC.add(1, 0, 0, 0, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 1, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 0, 0, 1);
-		RC.add(0, 0, 0, 0, 0, 1, 0, 1);
-		RC.add(0, 1, 1, 1, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 1, 0, 0, 0, 0);
-		RC.add(1, 0, 0, 1, 0, 0, 0, 0);
-		RC.add(0, 0, 1, 0, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 0, 1, 0);
-		RC.add(0, 0, 0, 0, 1, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 1, 1, 0);
-		RC.add(0, 0, 0, 0, 0, 0, 1, 1);
-		RC.add(0, 0, 0, 0, 1, 1, 0, 0);
-		RC.add(0, 0, 0, 0, 1, 0, 0, 1);
-		RC.add(1, 0, 1, 0, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 1, 1, 1);
-		RC.add(0, 0, 0, 0, 1, 1, 0, 1);
-		RC.add(0, 0, 1, 1, 0, 0, 0, 0);
-		RC.add(0, 1, 0, 0, 0, 0, 0, 0);
-		RC.add(1, 0, 1, 1, 0, 0, 0, 0);
-		RC.add(1, 1, 0, 0, 0, 0, 0, 0);
-		RC.add(1, 1, 0, 1, 0, 0, 0, 0);
-		RC.add(0, 1, 0, 1, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 1, 0, 1, 0);
-		RC.add(0, 1, 1, 0, 0, 0, 0, 0);
-
-		for (int i = n; i < n - 1; i += n) {
-			IntVar[] adjRC = new IntVar[] { a[(i + n) - 2][(i + n) - 1], a[(i + n) - 1][(i + n + n) - 1],
-					a[(i + n + n) - 1][(i + n + n) - 2], a[(i + n + n) - 2][(i + n) - 2],
-					a[(i + n) - 2][(i + n + n) - 2], a[(i + n + n) - 2][(i + n + n) - 1],
-					a[(i + n + n) - 1][(i + n) - 1], a[(i + n) - 1][(i + n) - 2] };
-			model.table(adjRC, RC).post();
-
-		}
-
-		Tuples TL = new Tuples();
-		TL.add(0, 0, 0, 0, 1, 0, 1, 1);
-		TL.add(0, 0, 0, 0, 0, 0, 1, 0);
-		TL.add(0, 0, 0, 0, 0, 0, 0, 0);
-		TL.add(0, 0, 0, 0, 1, 0, 0, 1);
-		TL.add(0, 0, 0, 0, 0, 1, 1, 0);
-		TL.add(0, 0, 0, 0, 0, 1, 0, 0);
-		TL.add(0, 0, 0, 0, 1, 1, 0, 1);
-		TL.add(0, 1, 0, 0, 0, 0, 0, 0);
-		TL.add(1, 0, 1, 1, 0, 0, 0, 0);
-		TL.add(1, 0, 0, 1, 0, 0, 0, 0);
-		TL.add(0, 0, 1, 0, 0, 0, 0, 0);
-		TL.add(1, 1, 0, 1, 0, 0, 0, 0);
-		TL.add(0, 1, 1, 0, 0, 0, 0, 0);
-
-		IntVar[] adjTL = new IntVar[] { a[0][1], a[1][n + 1], a[n + 1][n], a[n][0], a[0][n], a[n][n + 1], a[n + 1][1],
-				a[1][0] };
-
-		model.table(adjTL, TL).post();
-
-		Tuples TC = new Tuples();
-		TC.add(1, 1, 1, 0, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 1, 1, 1, 0);
-		TC.add(0, 0, 0, 0, 1, 0, 1, 1);
-		TC.add(0, 0, 0, 0, 0, 0, 0, 0);
-		TC.add(1, 0, 0, 0, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 0, 1, 0, 0);
-		TC.add(0, 0, 0, 0, 0, 0, 0, 1);
-		TC.add(0, 0, 0, 0, 0, 1, 0, 1);
-		TC.add(0, 1, 1, 1, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 1, 0, 0, 0, 0);
-		TC.add(1, 0, 0, 1, 0, 0, 0, 0);
-		TC.add(0, 0, 1, 0, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 1, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 0, 0, 1, 0);
-		TC.add(0, 0, 0, 0, 0, 1, 1, 0);
-		TC.add(0, 0, 0, 0, 1, 1, 0, 0);
-		TC.add(0, 0, 0, 0, 1, 0, 0, 1);
-		TC.add(0, 0, 0, 0, 0, 0, 1, 1);
-		TC.add(1, 0, 1, 0, 0, 0, 0, 0);
-		TC.add(0, 0, 1, 1, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 0, 1, 1, 1);
-		TC.add(0, 0, 0, 0, 1, 1, 0, 1);
-		TC.add(0, 1, 0, 0, 0, 0, 0, 0);
-		TC.add(1, 0, 1, 1, 0, 0, 0, 0);
-		TC.add(1, 1, 0, 0, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 1, 0, 1, 0);
-		TC.add(0, 1, 0, 1, 0, 0, 0, 0);
-		TC.add(1, 1, 0, 1, 0, 0, 0, 0);
-		TC.add(0, 1, 1, 0, 0, 0, 0, 0);
-		for (int i = 1; i < n - 2; i++) {
-			IntVar[] adjTC = new IntVar[] { a[i][i + 1], a[i + 1][i + n + 1], a[i + n + 1][i + n], a[i + n][i],
-					a[i][i + n], a[i + n][i + n + 1], a[i + n + 1][i + 1], a[i + 1][i] };
-			model.table(adjTC, TC).post();
-
+		if (model == null) {
+			return; // large grid, no model
 		}
-
-		Tuples BC = new Tuples();
-		BC.add(1, 1, 1, 0, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 1, 1, 1, 0);
-		BC.add(0, 0, 0, 0, 1, 0, 1, 1);
-		BC.add(0, 0, 0, 0, 0, 0, 0, 0);
-		BC.add(1, 0, 0, 0, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 0, 0, 0, 1);
-		BC.add(0, 0, 0, 0, 0, 1, 0, 0);
-		BC.add(0, 0, 0, 0, 0, 1, 0, 1);
-		BC.add(0, 1, 1, 1, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 1, 0, 0, 0, 0);
-		BC.add(1, 0, 0, 1, 0, 0, 0, 0);
-		BC.add(0, 0, 1, 0, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 0, 0, 1, 0);
-		BC.add(0, 0, 0, 0, 1, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 1, 0, 0, 1);
-		BC.add(1, 0, 1, 0, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 0, 1, 1, 0);
-		BC.add(0, 0, 0, 0, 1, 1, 0, 0);
-		BC.add(0, 0, 0, 0, 0, 0, 1, 1);
-		BC.add(0, 0, 1, 1, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 1, 1, 0, 1);
-		BC.add(0, 0, 0, 0, 0, 1, 1, 1);
-		BC.add(1, 0, 1, 1, 0, 0, 0, 0);
-		BC.add(0, 1, 0, 0, 0, 0, 0, 0);
-		BC.add(1, 1, 0, 0, 0, 0, 0, 0);
-		BC.add(0, 1, 0, 1, 0, 0, 0, 0);
-		BC.add(1, 1, 0, 1, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 1, 0, 1, 0);
-		BC.add(0, 1, 1, 0, 0, 0, 0, 0);
-		for (int i = 1; i < n - 2; i++) {
-			IntVar[] adjBC = new IntVar[] { a[(n * n) - n - n + i][(n * n) - n - n + i + 1],
-					a[(n * n) - n - n + i + 1][(n * n) - n + i + 1], a[(n * n) - n + i + 1][(n * n) - n + i],
-					a[(n * n) - n + i][(n * n) - n - n + i], a[(n * n) - n - n + i][(n * n) - n + i],
-					a[(n * n) - n + i][(n * n) - n + i + 1], a[(n * n) - n + i + 1][(n * n) - n - n + i + 1],
-					a[(n * n) - n - n + i + 1][(n * n) - n - n + i] };
-			model.table(adjBC, BC).post();
-
-		}
-
-		Tuples TR = new Tuples();
-		TR.add(1, 1, 1, 0, 0, 0, 0, 0);
-		TR.add(0, 0, 0, 0, 1, 0, 1, 1);
-		TR.add(0, 0, 0, 0, 1, 0, 0, 0);
-		TR.add(0, 0, 0, 0, 1, 1, 0, 0);
-		TR.add(0, 0, 0, 0, 0, 0, 0, 0);
-		TR.add(0, 0, 0, 0, 0, 0, 1, 1);
-		TR.add(0, 0, 0, 0, 0, 1, 0, 0);
-		TR.add(0, 0, 0, 0, 0, 1, 1, 1);
-		TR.add(0, 0, 1, 1, 0, 0, 0, 0);
-		TR.add(1, 1, 0, 0, 0, 0, 0, 0);
-		TR.add(0, 0, 0, 1, 0, 0, 0, 0);
-		TR.add(0, 0, 1, 0, 0, 0, 0, 0);
-		TR.add(1, 1, 0, 1, 0, 0, 0, 0);
-
-		IntVar[] adjTR = new IntVar[] { a[n - 2][n - 1], a[n - 1][(n + n) - 1], a[(n + n) - 1][(n + n) - 2],
-				a[(n + n) - 2][n - 2], a[n - 2][(n + n) - 2], a[(n + n) - 2][(n + n) - 1], a[(n + n) - 1][n - 1],
-				a[n - 1][n - 2] };
-		model.table(adjTR, TC).post();
-
-		Tuples BL = new Tuples();
-		BL.add(0, 0, 0, 0, 1, 1, 1, 0);
-		BL.add(0, 0, 0, 0, 0, 0, 1, 0);
-		BL.add(0, 0, 0, 0, 0, 0, 1, 1);
-		BL.add(0, 0, 0, 0, 0, 0, 0, 0);
-		BL.add(1, 0, 0, 0, 0, 0, 0, 0);
-		BL.add(0, 0, 0, 0, 1, 1, 0, 0);
-		BL.add(0, 0, 1, 1, 0, 0, 0, 0);
-		BL.add(0, 0, 0, 0, 0, 0, 0, 1);
-		BL.add(0, 0, 0, 0, 1, 1, 0, 1);
-		BL.add(1, 0, 1, 1, 0, 0, 0, 0);
-		BL.add(0, 1, 0, 0, 0, 0, 0, 0);
-		BL.add(1, 1, 0, 0, 0, 0, 0, 0);
-		BL.add(0, 1, 1, 1, 0, 0, 0, 0);
-
-		IntVar[] adjBL = new IntVar[] { a[(n * n) - n - n][(n * n) - n - n + 1],
-				a[(n * n) - n - n + 1][(n * n) - n + 1], a[(n * n) - n + 1][(n * n) - n],
-				a[(n * n) - n][(n * n) - n - n], a[(n * n) - n - n][(n * n) - n], a[(n * n) - n][(n * n) - n + 1],
-				a[(n * n) - n + 1][(n * n) - n - n + 1], a[(n * n) - n - n + 1][(n * n) - n - n] };
-		model.table(adjBL, BL).post();
-
-		Tuples BR = new Tuples();
-		BR.add(1, 1, 1, 0, 0, 0, 0, 0);
-		BR.add(0, 0, 0, 0, 1, 1, 1, 0);
-		BR.add(0, 0, 0, 0, 1, 0, 0, 0);
-		BR.add(0, 0, 0, 0, 0, 0, 0, 0);
-		BR.add(0, 0, 0, 0, 0, 1, 1, 0);
-		BR.add(1, 0, 0, 0, 0, 0, 0, 0);
-		BR.add(0, 0, 0, 0, 1, 0, 0, 1);
-		BR.add(0, 0, 0, 0, 0, 1, 1, 1);
-		BR.add(0, 0, 0, 0, 0, 0, 0, 1);
-		BR.add(0, 1, 1, 1, 0, 0, 0, 0);
-		BR.add(0, 0, 0, 1, 0, 0, 0, 0);
-		BR.add(1, 0, 0, 1, 0, 0, 0, 0);
-		BR.add(0, 1, 1, 0, 0, 0, 0, 0);
-		IntVar[] adjBR = new IntVar[] { a[(n * n) - 2 - n][(n * n) - 1 - n], a[(n * n) - 1 - n][(n * n) - 1],
-				a[(n * n) - 1][(n * n) - 2], a[(n * n) - 2][(n * n) - 2 - n], a[(n * n) - 2 - n][(n * n) - 2],
-				a[(n * n) - 2][(n * n) - 1], a[(n * n) - 1][(n * n) - 1 - n], a[(n * n) - 1 - n][(n * n) - 2 - n] };
-		model.table(adjBR, BR).post();
-
-		Tuples C = new Tuples();
-		C.add(1, 1, 1, 0, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 1, 0, 1, 1);
-		C.add(0, 0, 0, 0, 1, 1, 1, 0);
-		C.add(1, 0, 0, 0, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 0, 1, 0, 0);
-		C.add(0, 0, 0, 0, 0, 0, 0, 1);
-		C.add(0, 0, 0, 0, 0, 1, 0, 1);
-		C.add(0, 1, 1, 1, 0, 0, 0, 0);
-		C.add(0, 0, 0, 1, 0, 0, 0, 0);
-		C.add(1, 0, 0, 1, 0, 0, 0, 0);
-		C.add(0, 0, 1, 0, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 1, 0, 0, 0);
-		C.add(0, 0, 0, 0, 0, 0, 1, 0);
-		C.add(0, 0, 0, 0, 1, 1, 0, 0);
-		C.add(1, 0, 1, 0, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 1, 0, 0, 1);
-		C.add(0, 0, 0, 0, 0, 0, 1, 1);
-		C.add(0, 0, 0, 0, 0, 1, 1, 0);
-		C.add(0, 0, 1, 1, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 1, 1, 0, 1);
-		C.add(0, 0, 0, 0, 0, 1, 1, 1);
-		C.add(1, 0, 1, 1, 0, 0, 0, 0);
-		C.add(0, 1, 0, 0, 0, 0, 0, 0);
-		C.add(1, 1, 0, 0, 0, 0, 0, 0);
-		C.add(1, 1, 0, 1, 0, 0, 0, 0);
-		C.add(0, 1, 0, 1, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 1, 0, 1, 0);
-		C.add(0, 1, 1, 0, 0, 0, 0, 0);
-		for (int i = 1; i < n - 2; i++) {
-			for (int j = n; j < n - 2; j++) {
-				IntVar[] adjC = new IntVar[] { a[(j * i) + 1][(j * i) + 2], a[(j * i) + 2][((j * i) + n) + 2],
-						a[((j * i) + n) + 2][((j * i) + n) + 1], a[((j * i) + n) + 1][(j * i) + 1],
-						a[(j * i) + 1][((j * i) + n) + 1], a[((j * i) + n) + 1][((j * i) + n) + 2],
-						a[((j * i) + n) + 2][(j * i) + 2], a[(j * i) + 2][(j * i) + 1] };
-
-				model.table(adjC, C).post();
-			}
-		}
-
+		SLPatterns.post(model, grid, arcs, count, l);
 	}
 
 }
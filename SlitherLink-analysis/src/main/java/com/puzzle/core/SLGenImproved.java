@@ -191,8 +191,7 @@ public class SLGenImproved extends SLGen {
      */
     private boolean isValidPuzzle(int[][] puzzle) {
         try {
-            SLSolve solver = new SLSolve(puzzle.length + 1, puzzle, false);
-            int[] result = solver.genSolutions(3);
+            int[] result = countSolutions(puzzle);
             return result[0] == 2; // Exactly 2 solutions (forward and reverse)
         } catch (Exception e) {
             return false;
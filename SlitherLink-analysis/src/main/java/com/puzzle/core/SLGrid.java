@@ -0,0 +1,256 @@
+package com.puzzle.core;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Topology of an n x n vertex grid, shared by all solvers of that dimension.
+ *
+ * Vertices are numbered row by row. The n(n-1) horizontal edges come first,
+ * edge i * (n - 1) + j joining vertex (i, j) to (i, j + 1), followed by the
+ * n(n-1) vertical edges, edge n(n-1) + i * n + j joining (i, j) to (i + 1, j).
+ * Cells are numbered row by row like the count grid.
+ */
+public final class SLGrid {
+
+	private static final ConcurrentHashMap<Integer, SLGrid> GRIDS = new ConcurrentHashMap<>();
+
+	final int n; // puzzle dimension
+	final int numVertices;
+	final int numEdges;
+	final int numCells;
+	final int numHorizontal;
+
+	final int[] edgeFrom; // lower vertex of each edge
+	final int[] edgeTo; // higher vertex of each edge
+	final int[] edgeCells; // two cells per edge, -1 on the border
+	final int[] vertexEdges; // four edges per vertex, -1 on the border
+	final int[] vertexDegree;
+	final int[] cellEdges; // top, bottom, left, right per cell
+	final int[][] successors; // successor domain of each vertex
+
+	/**
+	 * Returns the cached topology of a dimension
+	 *
+	 * @param n puzzle dimension
+	 * @return grid
+	 */
+	public static SLGrid of(int n) {
+		return GRIDS.computeIfAbsent(n, SLGrid::new);
+	}
+
+	private SLGrid(int n) {
+		this.n = n;
+		numVertices = n * n;
+		numCells = (n - 1) * (n - 1);
+		numHorizontal = n * (n - 1);
+		numEdges = 2 * numHorizontal;
+
+		edgeFrom = new int[numEdges];
+		edgeTo = new int[numEdges];
+		edgeCells = new int[2 * numEdges];
+		vertexEdges = new int[4 * numVertices];
+		vertexDegree = new int[numVertices];
+		cellEdges = new int[4 * numCells];
+		successors = new int[numVertices][];
+		Arrays.fill(edgeCells, -1);
+		Arrays.fill(vertexEdges, -1);
+
+		for (int e = 0; e < numEdges; e++) {
+			int from = e < numHorizontal ? (e / (n - 1)) * n + e % (n - 1) : e - numHorizontal;
+			int to = e < numHorizontal ? from + 1 : from + n;
+			edgeFrom[e] = from;
+			edgeTo[e] = to;
+			vertexEdges[4 * from + vertexDegree[from]++] = e;
+			vertexEdges[4 * to + vertexDegree[to]++] = e;
+		}
+		for (int c = 0; c < numCells; c++) {
+			int i = c / (n - 1);
+			int j = c % (n - 1);
+			cellEdges[4 * c] = horizontal(i, j); // top
+			cellEdges[4 * c + 1] = horizontal(i + 1, j); // bottom
+			cellEdges[4 * c + 2] = vertical(i, j); // left
+			cellEdges[4 * c + 3] = vertical(i, j + 1); // right
+			for (int k = 0; k < 4; k++) {
+				int e = cellEdges[4 * c + k];
+				edgeCells[2 * e + (edgeCells[2 * e] == -1 ? 0 : 1)] = c;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				int[] dom = new int[5];
+				int k = 0;
+				if (i > 0)
+					dom[k++] = (i - 1) * n + j; // above
+				if (j > 0)
+					dom[k++] = i * n + j - 1; // left
+				dom[k++] = i * n + j; // itself
+				if (j < n - 1)
+					dom[k++] = i * n + j + 1; // right
+				if (i < n - 1)
+					dom[k++] = (i + 1) * n + j; // below
+				successors[i * n + j] = Arrays.copyOf(dom, k);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return puzzle dimension
+	 */
+	public int getDimension() {
+		return n;
+	}
+
+	/**
+	 *
+	 * @return number of undirected edges, 2n(n-1)
+	 */
+	public int getNumEdges() {
+		return numEdges;
+	}
+
+	/**
+	 * @return edge from vertex (i, j) to (i, j + 1)
+	 */
+	public int horizontal(int i, int j) {
+		return i * (n - 1) + j;
+	}
+
+	/**
+	 * @return edge from vertex (i, j) to (i + 1, j)
+	 */
+	public int vertical(int i, int j) {
+		return numHorizontal + i * n + j;
+	}
+
+	/**
+	 * Edge joining two vertices in either order
+	 *
+	 * @param u vertex
+	 * @param v vertex
+	 * @return edge index or -1 if the vertices are not adjacent
+	 */
+	public int edge(int u, int v) {
+		int from = Math.min(u, v);
+		int to = Math.max(u, v);
+		if (to == from + 1 && to % n != 0) {
+			return horizontal(from / n, from % n);
+		}
+		if (to == from + n) {
+			return numHorizontal + from;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the end of an edge that is not v
+	 */
+	public int other(int e, int v) {
+		return edgeFrom[e] == v ? edgeTo[e] : edgeFrom[e];
+	}
+
+	/**
+	 * @return the k-th edge (0 to 3) around a vertex, -1 past its degree
+	 */
+	public int vertexEdge(int v, int k) {
+		return vertexEdges[4 * v + k];
+	}
+
+	/**
+	 * @return edge k of a cell: 0 top, 1 bottom, 2 left, 3 right
+	 */
+	public int cellEdge(int c, int k) {
+		return cellEdges[4 * c + k];
+	}
+
+	/**
+	 * @return successor domain of a vertex, its neighbours and itself
+	 */
+	public int[] successors(int v) {
+		return successors[v];
+	}
+
+	/**
+	 * Successor array of a single loop, walked from its smallest vertex towards
+	 * its smaller neighbour
+	 *
+	 * @param loop edge bitset of the loop
+	 * @return successor of every vertex, itself when off the loop
+	 */
+	public int[] loopSuccessors(long[] loop) {
+		int[] successor = new int[numVertices];
+		int start = -1;
+		for (int v = 0; v < numVertices; v++) {
+			successor[v] = v;
+			if (start == -1 && loopNeighbour(loop, v, -1) != -1) {
+				start = v;
+			}
+		}
+		if (start == -1) {
+			return successor;
+		}
+		int prev = start;
+		int cur = loopNeighbour(loop, start, -1);
+		successor[start] = cur;
+		while (cur != start) {
+			int next = loopNeighbour(loop, cur, prev);
+			successor[cur] = next;
+			prev = cur;
+			cur = next;
+		}
+		return successor;
+	}
+
+	/**
+	 * Edge bitset of a loop given as a successor array
+	 *
+	 * @param successor successor of every vertex, itself when off the loop
+	 * @return edge bitset of the loop
+	 */
+	public long[] loopEdges(int[] successor) {
+		long[] loop = new long[(numEdges + 63) / 64];
+		for (int v = 0; v < numVertices; v++) {
+			if (successor[v] != v) {
+				int e = edge(v, successor[v]);
+				loop[e >>> 6] |= 1L << e;
+			}
+		}
+		return loop;
+	}
+
+	/**
+	 * Clue of every cell around a loop
+	 *
+	 * @param successor successor of every vertex, itself when off the loop
+	 * @return count matrix with every cell clued
+	 */
+	public int[][] loopClues(int[] successor) {
+		long[] loop = loopEdges(successor);
+		int[][] clues = new int[n - 1][n - 1];
+		for (int c = 0; c < numCells; c++) {
+			for (int k = 0; k < 4; k++) {
+				int e = cellEdge(c, k);
+				clues[c / (n - 1)][c % (n - 1)] += (int) (loop[e >>> 6] >>> e & 1);
+			}
+		}
+		return clues;
+	}
+
+	/**
+	 * smallest loop neighbour of a vertex other than the excluded one
+	 */
+	private int loopNeighbour(long[] loop, int v, int exclude) {
+		int best = -1;
+		for (int k = 0; k < vertexDegree[v]; k++) {
+			int e = vertexEdges[4 * v + k];
+			if ((loop[e >>> 6] & (1L << e)) != 0) {
+				int other = other(e, v);
+				if (other != exclude && (best == -1 || other < best)) {
+					best = other;
+				}
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,17 @@
+package com.puzzle.core;
+
+/**
+ * How a Choco model enforces the single loop
+ */
+public enum SLLoopModel {
+
+	/**
+	 * subCircuit over the vertex successor array
+	 */
+	SUBCIRCUIT,
+
+	/**
+	 * PropSingleLoop over one boolean per edge
+	 */
+	PROPAGATOR
+}
@@ -0,0 +1,163 @@
+package com.puzzle.core;
+
+import org.chocosolver.solver.Model;
+import org.chocosolver.solver.constraints.extension.Tuples;
+import org.chocosolver.solver.variables.BoolVar;
+
+/**
+ * Local 2x2 vertex patterns allowed around a cell, compiled once and shared by
+ * every model.
+ *
+ * A pattern lists the arcs of one cell in the order used since the first rules
+ * tables: clockwise top, right, bottom, left, then counter-clockwise left,
+ * bottom, right, top. A pattern is allowed when each edge runs in one direction
+ * at most, the loop passes straight through every corner it uses twice, a grid
+ * corner vertex is either skipped or turned, and the four edges only close
+ * around the cell when a tour of length four is allowed. Tables of clue cells
+ * only keep the patterns using exactly the clue's number of edges.
+ */
+final class SLPatterns {
+
+	// corners of a cell in pattern order
+	private static final int TL = 1;
+	private static final int TR = 2;
+	private static final int BR = 4;
+	private static final int BL = 8;
+
+	// tables by clue + 1 (no clue up to 4), closed cell and grid corner mask
+	private static final Tuples[] TABLES = new Tuples[6 * 32];
+	private static final Tuples[] EDGE_TABLES = new Tuples[6 * 32];
+
+	static {
+		for (int key = 0; key < TABLES.length; key++) {
+			TABLES[key] = compile(key & 15, (key & 16) != 0, key / 32 - 1, 8);
+			EDGE_TABLES[key] = compile(key & 15, (key & 16) != 0, key / 32 - 1, 4);
+		}
+	}
+
+	private SLPatterns() {
+	}
+
+	/**
+	 * Posts the pattern table of every cell of a model
+	 *
+	 * @param model   Choco model
+	 * @param grid    topology of the model
+	 * @param arcs    arc 2e along edge e from its lower vertex, 2e + 1 back
+	 * @param count   edge reqs
+	 * @param minTour sub-tour lbound of the model
+	 */
+	static void post(Model model, SLGrid grid, BoolVar[] arcs, int[][] count, int minTour) {
+		int n = grid.n;
+		boolean closedCell = minTour <= 4;
+		for (int i = 0; i < n - 1; i++) {
+			for (int j = 0; j < n - 1; j++) {
+				int c = i * (n - 1) + j;
+				int top = grid.cellEdge(c, 0);
+				int bottom = grid.cellEdge(c, 1);
+				int left = grid.cellEdge(c, 2);
+				int right = grid.cellEdge(c, 3);
+				BoolVar[] adj = new BoolVar[] { arcs[2 * top], arcs[2 * right], arcs[2 * bottom + 1],
+						arcs[2 * left + 1], arcs[2 * left], arcs[2 * bottom], arcs[2 * right + 1], arcs[2 * top + 1] };
+				model.table(adj, table(n, i, j, count[i][j], closedCell), "CT+").post();
+			}
+		}
+	}
+
+	/**
+	 * Posts the pattern table of every cell of a model over undirected edges,
+	 * listed top, right, bottom, left
+	 *
+	 * @param model   Choco model
+	 * @param grid    topology of the model
+	 * @param edges   edge booleans
+	 * @param count   edge reqs
+	 * @param minTour sub-tour lbound of the model
+	 */
+	static void postEdges(Model model, SLGrid grid, BoolVar[] edges, int[][] count, int minTour) {
+		int n = grid.n;
+		boolean closedCell = minTour <= 4;
+		for (int i = 0; i < n - 1; i++) {
+			for (int j = 0; j < n - 1; j++) {
+				int c = i * (n - 1) + j;
+				BoolVar[] adj = new BoolVar[] { edges[grid.cellEdge(c, 0)], edges[grid.cellEdge(c, 3)],
+						edges[grid.cellEdge(c, 1)], edges[grid.cellEdge(c, 2)] };
+				model.table(adj, EDGE_TABLES[key(n, i, j, count[i][j], closedCell)], "CT+").post();
+			}
+		}
+	}
+
+	/**
+	 * @return table for the cell at row i, column j of a grid of dimension n
+	 */
+	static Tuples table(int n, int i, int j, int clue, boolean closedCell) {
+		return TABLES[key(n, i, j, clue, closedCell)];
+	}
+
+	private static int key(int n, int i, int j, int clue, boolean closedCell) {
+		int corners = 0;
+		if (i == 0 && j == 0)
+			corners |= TL;
+		if (i == 0 && j == n - 2)
+			corners |= TR;
+		if (i == n - 2 && j == n - 2)
+			corners |= BR;
+		if (i == n - 2 && j == 0)
+			corners |= BL;
+		// the clue sums still reject values out of range
+		int row = Math.max(-1, Math.min(clue, 4)) + 1;
+		return row * 32 + (closedCell ? 16 : 0) + corners;
+	}
+
+	/**
+	 * enumerates every assignment of the eight arcs, or of the four edges, and
+	 * keeps the allowed ones
+	 */
+	private static Tuples compile(int corners, boolean closedCell, int clue, int arity) {
+		Tuples tuples = new Tuples(true);
+		int[] t = new int[arity];
+		int[] arcs = new int[8];
+		for (int bits = 0; bits < 1 << arity; bits++) {
+			for (int k = 0; k < arity; k++) {
+				t[k] = (bits >> k) & 1;
+			}
+			// an undirected edge pattern is allowed when running it clockwise is
+			for (int k = 0; k < 8; k++) {
+				arcs[k] = k < arity ? t[k] : 0;
+			}
+			if (allowed(arcs, corners, closedCell) && (clue < 0 || Integer.bitCount(bits) == clue)) {
+				tuples.add(t.clone());
+			}
+		}
+		return tuples;
+	}
+
+	private static boolean allowed(int[] t, int corners, boolean closedCell) {
+		int[] cw = new int[] { t[0], t[1], t[2], t[3] }; // top, right, bottom, left
+		int[] ccw = new int[] { t[7], t[6], t[5], t[4] };
+		int used = 0;
+		for (int k = 0; k < 4; k++) {
+			if (cw[k] + ccw[k] > 1) {
+				return false;
+			}
+			used += cw[k] + ccw[k];
+		}
+		if (used == 4 && !closedCell) {
+			return false;
+		}
+		// corner k joins edge k - 1 and edge k (tl joins left and top)
+		int[] corner = new int[] { TL, TR, BR, BL };
+		for (int k = 0; k < 4; k++) {
+			int in = (k + 3) % 4;
+			boolean inUsed = cw[in] + ccw[in] == 1;
+			boolean outUsed = cw[k] + ccw[k] == 1;
+			if (inUsed && outUsed && cw[in] != cw[k]) {
+				return false;
+			}
+			if ((corners & corner[k]) != 0 && inUsed != outUsed) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,276 @@
+package com.puzzle.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Races several engines on the same puzzle and keeps the first answer.
+ *
+ * Every call builds one engine per member, runs the same query on each of them
+ * on a shared bounded pool and cancels the others once one of them returns.
+ * The members are complete solvers, so whichever finishes first has the
+ * answer. Wins are tallied per grid size and member.
+ */
+public class SLPortfolio implements SLEngine {
+
+	private static List<SLEngineType> defaultMembers = Arrays.asList(SLEngineType.SAT, SLEngineType.CHOCO_LOOP,
+			SLEngineType.BITBOARD);
+	private static int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+	private static ExecutorService pool;
+	private static final Map<String, LongAdder> wins = new ConcurrentHashMap<>();
+
+	private int n; // puzzle dimension
+	private int[][] count; // edge reqs
+	private List<SLEngineType> members;
+	private boolean rules;
+
+	private volatile SLEngine[] running = new SLEngine[0];
+	private SLEngine winner;
+	private SLEngineType winnerType;
+	private long solveNanos;
+
+	public SLPortfolio(int n, int[][] count) {
+		this(n, count, defaultMembers);
+	}
+
+	public SLPortfolio(int n, int[][] count, List<SLEngineType> members) {
+		if (members.isEmpty() || members.contains(SLEngineType.PORTFOLIO)) {
+			throw new IllegalArgumentException("portfolio members must be plain engines: " + members);
+		}
+		this.n = n;
+		this.count = count;
+		this.members = new ArrayList<>(members);
+	}
+
+	/**
+	 * Sets the members of portfolios built without an explicit list and the
+	 * size of the shared pool, before the first portfolio runs
+	 *
+	 * @param members engines raced on each call
+	 * @param size    threads shared by all portfolios
+	 */
+	public static synchronized void configure(List<SLEngineType> members, int size) {
+		if (pool != null) {
+			throw new IllegalStateException("portfolio pool already started");
+		}
+		if (members.isEmpty() || members.contains(SLEngineType.PORTFOLIO) || size < 1) {
+			throw new IllegalArgumentException("invalid portfolio " + members + " on " + size + " threads");
+		}
+		defaultMembers = new ArrayList<>(members);
+		threads = size;
+	}
+
+	/**
+	 *
+	 * @return members raced by portfolios built without an explicit list
+	 */
+	public static List<SLEngineType> getDefaultMembers() {
+		return Collections.unmodifiableList(defaultMembers);
+	}
+
+	/**
+	 *
+	 * @return wins so far keyed by grid size and member, as "10x10 SAT"
+	 */
+	public static Map<String, Long> getWins() {
+		Map<String, Long> snapshot = new TreeMap<>();
+		for (Map.Entry<String, LongAdder> win : wins.entrySet()) {
+			snapshot.put(win.getKey(), win.getValue().sum());
+		}
+		return snapshot;
+	}
+
+	private static synchronized ExecutorService pool() {
+		if (pool == null) {
+			pool = Executors.newFixedThreadPool(threads, task -> {
+				Thread thread = new Thread(task, "sl-portfolio");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return pool;
+	}
+
+	/**
+	 * pattern rules are applied by every member that supports them
+	 */
+	@Override
+	public void rules() {
+		rules = true;
+	}
+
+	/**
+	 *
+	 * @return if solution found
+	 */
+	@Override
+	public boolean solve() {
+		return race(SLEngine::solve);
+	}
+
+	/**
+	 *
+	 * @return solution of the winning member
+	 */
+	@Override
+	public int[] getSolution() {
+		if (winner == null) {
+			throw new IllegalStateException("no member has answered");
+		}
+		return winner.getSolution();
+	}
+
+	/**
+	 *
+	 * @return number of solutions
+	 */
+	@Override
+	public int findNumSolutions() {
+		return race(SLEngine::findNumSolutions);
+	}
+
+	/**
+	 * function for generation checks number of solutions and tour length
+	 *
+	 * @param limit
+	 * @return number solutions and tour length
+	 */
+	@Override
+	public int[] genSolutions(int limit) {
+		return race(sl -> sl.genSolutions(limit));
+	}
+
+	/**
+	 *
+	 * @return bounded number of distinct loops
+	 */
+	@Override
+	public SLUniqueness uniqueness() {
+		return race(SLEngine::uniqueness);
+	}
+
+	/**
+	 *
+	 * @return another loop than the reference, or null
+	 */
+	@Override
+	public int[] findAlternative(int[] reference) {
+		return race(sl -> sl.findAlternative(reference));
+	}
+
+	/**
+	 *
+	 * @return number of nodes of the winning member
+	 */
+	@Override
+	public long getNodeCount() {
+		return winner == null ? 0 : winner.getNodeCount();
+	}
+
+	/**
+	 *
+	 * @return wall time of the race
+	 */
+	@Override
+	public float solveTime() {
+		float time = solveNanos / 1e9f;
+		System.out.println(time);
+		return time;
+	}
+
+	/**
+	 * prints solve statistics
+	 */
+	@Override
+	public void stats() {
+		System.out.println(String.format("- Portfolio of %s: won by %s in %.3fs", members, winnerType,
+				solveNanos / 1e9));
+		if (winner != null) {
+			winner.stats();
+		}
+	}
+
+	/**
+	 * cancels every member still running
+	 */
+	@Override
+	public void cancel() {
+		for (SLEngine sl : running) {
+			sl.cancel();
+		}
+	}
+
+	/**
+	 * @return name of the member that answered the last call
+	 */
+	public SLEngineType getWinner() {
+		return winnerType;
+	}
+
+	/**
+	 * Runs the query on every member and returns the first answer, members
+	 * failing with an exception drop out of the race
+	 */
+	private <T> T race(Function<SLEngine, T> query) {
+		long start = System.nanoTime();
+		SLEngine[] engines = new SLEngine[members.size()];
+		for (int k = 0; k < engines.length; k++) {
+			engines[k] = members.get(k).create(n, count);
+			if (rules) {
+				engines[k].rules();
+			}
+		}
+		running = engines;
+		winner = null;
+		winnerType = null;
+		ExecutorCompletionService<T> done = new ExecutorCompletionService<>(pool());
+		Map<Future<T>, Integer> index = new HashMap<>();
+		for (int k = 0; k < engines.length; k++) {
+			SLEngine sl = engines[k];
+			index.put(done.submit(() -> query.apply(sl)), k);
+		}
+		RuntimeException failure = null;
+		try {
+			for (int answered = 0; answered < engines.length; answered++) {
+				Future<T> first = done.take();
+				try {
+					T answer = first.get();
+					int k = index.get(first);
+					winner = engines[k];
+					winnerType = members.get(k);
+					wins.computeIfAbsent((n - 1) + "x" + (n - 1) + " " + winnerType, key -> new LongAdder())
+							.increment();
+					return answer;
+				} catch (ExecutionException ex) {
+					failure = new IllegalStateException("portfolio member failed", ex.getCause());
+				}
+			}
+			throw failure;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while racing " + members, ex);
+		} finally {
+			for (Future<T> future : index.keySet()) {
+				future.cancel(false);
+			}
+			for (SLEngine sl : engines) {
+				sl.cancel();
+			}
+			running = new SLEngine[0];
+			solveNanos = System.nanoTime() - start;
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package com.puzzle.core;
+
+/**
+ * Receives the progress of a generation, called on the generating thread
+ */
+public interface SLProgress {
+
+	/**
+	 * loop search, done counts the attempts
+	 */
+	String LOOP = "loop";
+
+	/**
+	 * clue reduction, done counts the clues tried out of total
+	 */
+	String REDUCE = "reduce";
+
+	/**
+	 *
+	 * @param phase LOOP or REDUCE
+	 * @param done  steps done in the phase
+	 * @param total steps of the phase, 0 when not known
+	 * @param clues clues of the puzzle so far
+	 */
+	void progress(String phase, int done, int total, int clues);
+}
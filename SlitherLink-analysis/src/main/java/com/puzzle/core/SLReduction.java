@@ -0,0 +1,124 @@
+package com.puzzle.core;
+
+import java.util.function.BiFunction;
+
+/**
+ * Reduction session: clue removal checks against one solver model.
+ *
+ * The clue reductions of the generators drop clues one at a time and ask
+ * whether the loop the full clues came from is still the only loop. A session
+ * builds the model of the full puzzle once, every clue removable and the
+ * reference loop excluded, instead of a new model per check. A Choco model
+ * answers each check inside a world popped afterwards, the SAT formula under
+ * assumptions, keeping the clauses it learns.
+ */
+public class SLReduction {
+
+	private int n; // puzzle dimension
+	private int[][] count; // clues the model was built with
+	private int loopLength;
+	private BiFunction<int[][], SLDeduce, int[]> alternative; // loop other than the reference
+	private long checks;
+	private long checkNanos;
+
+	/**
+	 * @param n         puzzle dimension
+	 * @param count     full clues
+	 * @param loop      successor array of the loop the clues were taken from
+	 * @param engine    CHOCO, CHOCO_LOOP or SAT
+	 */
+	public SLReduction(int n, int[][] count, int[] loop, SLEngineType engine) {
+		this.n = n;
+		this.count = new int[n - 1][];
+		for (int i = 0; i < n - 1; i++) {
+			this.count[i] = count[i].clone();
+		}
+		for (int v = 0; v < loop.length; v++) {
+			loopLength += loop[v] != v ? 1 : 0;
+		}
+		if (engine == SLEngineType.SAT) {
+			SLSatSolve sat = new SLSatSolve(n, this.count, true);
+			sat.exclude(loop);
+			alternative = sat::findAlternative;
+		} else if (engine == SLEngineType.CHOCO || engine == SLEngineType.CHOCO_LOOP) {
+			SLSolve sl = new SLSolve(n, this.count, false,
+					engine == SLEngineType.CHOCO ? SLLoopModel.SUBCIRCUIT : SLLoopModel.PROPAGATOR, true);
+			sl.exclude(loop);
+			alternative = sl::findAlternative;
+		} else {
+			throw new IllegalArgumentException("no reduction session on " + engine);
+		}
+	}
+
+	/**
+	 * Opens a session for the checks of an engine, the bitboard search builds
+	 * no model to reuse and a portfolio races new engines
+	 *
+	 * @return session, or null for those engines
+	 */
+	public static SLReduction open(SLEngineType engine, int n, int[][] count, int[] loop) {
+		switch (engine) {
+		case CHOCO:
+		case CHOCO_LOOP:
+		case SAT:
+			return new SLReduction(n, count, loop, engine);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 *
+	 * @return if every clue of the puzzle is one the session was built with
+	 */
+	public boolean covers(int[][] puzzle) {
+		if (puzzle.length != n - 1) {
+			return false;
+		}
+		for (int i = 0; i < n - 1; i++) {
+			for (int j = 0; j < n - 1; j++) {
+				if (puzzle[i][j] != -1 && puzzle[i][j] != count[i][j]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Counts solutions up to 3 as the generator does when the loop is known,
+	 * settling the puzzle with the deduction rules first when they can
+	 *
+	 * @param puzzle clues of the session, -1 for removed ones
+	 * @return number solutions and tour length
+	 */
+	public int[] countSolutions(int[][] puzzle) {
+		SLDeduce deduce = new SLDeduce(n, puzzle);
+		if (!deduce.deduce()) {
+			return new int[] { 0, 0 };
+		}
+		if (deduce.isSolved()) {
+			return new int[] { 2, deduce.getLoopLength() }; // one loop, both directions
+		}
+		long start = System.nanoTime();
+		checks++;
+		boolean unique = alternative.apply(puzzle, deduce) == null;
+		checkNanos += System.nanoTime() - start;
+		return unique ? new int[] { 2, loopLength } : new int[] { 3, 0 };
+	}
+
+	/**
+	 *
+	 * @return checks that needed a search
+	 */
+	public long getChecks() {
+		return checks;
+	}
+
+	/**
+	 * prints session statistics
+	 */
+	public void stats() {
+		System.out.println(String.format("- Reduction session: %d searches, %.3fs", checks, checkNanos / 1e9));
+	}
+}
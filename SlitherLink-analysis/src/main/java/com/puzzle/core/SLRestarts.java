@@ -0,0 +1,104 @@
+package com.puzzle.core;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.search.loop.monitors.IMonitorRestart;
+import org.chocosolver.solver.search.loop.monitors.NogoodFromRestarts;
+import org.chocosolver.solver.search.strategy.assignments.DecisionOperatorFactory;
+import org.chocosolver.solver.search.strategy.decision.Decision;
+import org.chocosolver.solver.search.strategy.decision.DecisionPath;
+import org.chocosolver.solver.search.strategy.decision.IntDecision;
+import org.chocosolver.solver.search.limits.FailCounter;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Luby restarts with nogood recording for the large-grid mode.
+ *
+ * At each restart the refuted decisions of the current path become nogoods, so
+ * the search does not explore the subtrees it already closed again. Solutions
+ * are recorded as nogoods too, a restart would find them again otherwise.
+ * Counts the restarts and learnt nogoods for the statistics.
+ */
+public class SLRestarts implements IMonitorRestart {
+
+	static final int BASE = 500; // fails before the first restart
+	static final int LIMIT = 10000; // restarts, then the search runs to completion
+
+	private final Solver solver;
+	private final NogoodFromRestarts nogoods;
+	private long restarts;
+	private long learnt;
+
+	private SLRestarts(Solver solver) {
+		this.solver = solver;
+		nogoods = new NogoodFromRestarts(solver.getModel());
+	}
+
+	/**
+	 * Plugs Luby restarts and the nogood recording into a solver before its
+	 * search
+	 *
+	 * @param solver
+	 * @param vars      variables of a solution, null when restarts stay within
+	 *                  one solve
+	 * @param restart   if this sets the restart policy, false when the
+	 *                  strategy brings its own
+	 * @return counters of the recording
+	 */
+	public static SLRestarts plug(Solver solver, IntVar[] vars, boolean restart) {
+		if (restart) {
+			solver.setLubyRestart(BASE, new FailCounter(solver.getModel(), BASE), LIMIT);
+		}
+		if (vars != null) {
+			solver.setNoGoodRecordingFromSolutions(vars);
+		}
+		SLRestarts monitor = new SLRestarts(solver);
+		solver.plugMonitor(monitor);
+		return monitor;
+	}
+
+	@Override
+	public void beforeRestart() {
+		restarts++;
+		learnt += refuted(solver.getDecisionPath());
+		nogoods.beforeRestart();
+	}
+
+	/**
+	 *
+	 * @return decisions on their refutation branch, one nogood each
+	 */
+	private static int refuted(DecisionPath path) {
+		int refuted = 0;
+		for (int i = 0; i < path.size(); i++) {
+			Decision<?> decision = path.getDecision(i);
+			if (decision instanceof IntDecision && !decision.hasNext()) {
+				IntDecision d = (IntDecision) decision;
+				if (d.getDecOp() != DecisionOperatorFactory.makeIntEq() || d.getArity() != 1) {
+					refuted++;
+				}
+			}
+		}
+		return refuted;
+	}
+
+	/**
+	 *
+	 * @return restarts made
+	 */
+	public long getRestarts() {
+		return restarts;
+	}
+
+	/**
+	 *
+	 * @return nogoods learnt at restarts
+	 */
+	public long getNogoods() {
+		return learnt;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d restarts, %d nogoods", restarts, learnt);
+	}
+}
@@ -2,8 +2,8 @@ package com.puzzle.core;
 
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
-import org.chocosolver.util.tools.ArrayUtils;
 
 import java.util.*;
 
@@ -18,8 +18,8 @@ public class SLRules {
     private Solver solver;
 
     private int[][] count;  //edge reqs
-    private IntVar[][] a;   //adjacency matrix
-    private IntVar[][] v;   //vertex matrix
+    private SLGrid grid;    //shared topology
+    private BoolVar[] arcs; //arc 2e runs along edge e from its lower vertex, 2e+1 back
     private IntVar[] tour;  //sub-tour array
     private IntVar tourLength;
 
@@ -33,55 +33,32 @@ public class SLRules {
         this.count=count;
         m=n*n;
         l=m/2;
-        a = new IntVar[n*n][n*n];
-        v = new IntVar[n][n];
-
-        //create node grid
-        //define domains
-        for(int i=0;i<n;i++){
-            for(int j=0;j<n;j++){
-                ArrayList<Integer> dom = new ArrayList<>();
-                if(i > 0) dom.add((i - 1) * n + j); //above
-                if(j > 0) dom.add(i * n + j - 1);   //left
-                dom.add(i * n + j);                 //itself
-                if(j < n-1 ) dom.add(i * n + j + 1);//right
-                if(i < n-1) dom.add((i + 1) * n + j);//below
-
-                int[] domain = new int[dom.size()];
-                int k = 0;
-                for(int x : dom){
-                    domain[k++]=x;
-                }
-                v[i][j] = model.intVar("v["+i+"]"+"["+j+"]",domain);
-            }
-
+        grid = SLGrid.of(n);
+        tour = new IntVar[n*n];
 
+        //create node grid, each vertex points to a neighbour or itself
+        for(int i=0;i<n*n;i++){
+            tour[i] = model.intVar(grid.successors(i));
         }
 
-
         //subtour constraint
-        tourLength = model.intVar("tour length",l,m);
-        tour = ArrayUtils.flatten(v);
+        tourLength = model.intVar(l,m);
 
         model.subCircuit(tour,0,tourLength).post();
 
-        //Link tour with adjacency matrix
-        for (int i=0;i<n*n;i++){
-            int ub = tour[i].getUB();
-            for (int j = tour[i].getLB();j<=ub;j=tour[i].nextValue(j))
-                if (i != j){
-                    a[i][j] = model.intVar("A["+ i +"]["+ j +"]",0,1);
-                    model.ifOnlyIf(model.arithm(a[i][j],"=",1),model.arithm(tour[i],"=",j));
-                    //efficient search
-                    model.ifThen(model.arithm(tour[i],"=",j),model.arithm(tour[j],"!=",i));
-                }
+        //arcs are views on the tour, an edge is used in one direction at most
+        arcs = new BoolVar[2*grid.numEdges];
+        for(int e=0;e<grid.numEdges;e++){
+            arcs[2*e] = model.intEqView(tour[grid.edgeFrom[e]],grid.edgeTo[e]);
+            arcs[2*e+1] = model.intEqView(tour[grid.edgeTo[e]],grid.edgeFrom[e]);
+            model.arithm(arcs[2*e],"+",arcs[2*e+1],"<=",1).post();
         }
 
 
         System.out.println();
         for (int i=0;i<n;i++){
             for (int j=0;j<n;j++)
-                System.out.print(v[i][j] +" ");
+                System.out.print(tour[i*n+j] +" ");
             System.out.println();
         }
         //constrain square edges
@@ -89,17 +66,17 @@ public class SLRules {
             for(int j = 0;j < n-1; j++){
                 if(count[i][j] > -1){
                     IntVar[] e = new IntVar[]{
-                            a[(i*n)+j][(i*n)+j+1], //top
-                            a[(i*n)+j+1][(i*n)+j], //top
+                            arc((i*n)+j,(i*n)+j+1), //top
+                            arc((i*n)+j+1,(i*n)+j), //top
 
-                            a[(i*n)+j+n][(i*n)+j+n+1], //bottom
-                            a[(i*n)+j+n+1][(i*n)+j+n], //bottom
+                            arc((i*n)+j+n,(i*n)+j+n+1), //bottom
+                            arc((i*n)+j+n+1,(i*n)+j+n), //bottom
 
-                            a[(i*n)+j][(i*n)+j+n],     //left
-                            a[(i*n)+j+n][(i*n)+j],     //left
+                            arc((i*n)+j,(i*n)+j+n),     //left
+                            arc((i*n)+j+n,(i*n)+j),     //left
 
-                            a[(i*n)+j+1][(i*n)+j+n+1],  //right
-                            a[(i*n)+j+n+1][(i*n)+j+1]  //right
+                            arc((i*n)+j+1,(i*n)+j+n+1),  //right
+                            arc((i*n)+j+n+1,(i*n)+j+1)  //right
                     };
                     model.sum(e,"=",count[i][j]).post();
                 }
@@ -108,6 +85,11 @@ public class SLRules {
 
     }
 
+    private BoolVar arc(int from,int to){
+        int e = grid.edge(from,to);
+        return arcs[2*e+(from<to ? 0 : 1)];
+    }
+
     public Set<List<Integer>> test(){
         Set<List<Integer>> validTR = new HashSet<>();
         Set<List<Integer>> validTC = new HashSet<>();
@@ -120,31 +102,31 @@ public class SLRules {
         Set<List<Integer>> validBL = new HashSet<>();
 
         while(solver.solve()){
-            validTL.add(Arrays.asList(a[0][1].getValue(),a[1][n+1].getValue(),a[n+1][n].getValue(),a[n][0].getValue()
-                    ,a[0][n].getValue(),a[n][n+1].getValue(),a[n+1][1].getValue(),a[1][0].getValue()));
-            validTC.add(Arrays.asList(a[1][2].getValue(),a[2][n+2].getValue(),a[n+2][n+1].getValue(),a[n+1][1].getValue()
-                    ,a[1][n+1].getValue(),a[n+1][n+2].getValue(),a[n+2][2].getValue(),a[2][1].getValue()));
+            validTL.add(Arrays.asList(arc(0,1).getValue(),arc(1,n+1).getValue(),arc(n+1,n).getValue(),arc(n,0).getValue()
+                    ,arc(0,n).getValue(),arc(n,n+1).getValue(),arc(n+1,1).getValue(),arc(1,0).getValue()));
+            validTC.add(Arrays.asList(arc(1,2).getValue(),arc(2,n+2).getValue(),arc(n+2,n+1).getValue(),arc(n+1,1).getValue()
+                    ,arc(1,n+1).getValue(),arc(n+1,n+2).getValue(),arc(n+2,2).getValue(),arc(2,1).getValue()));
 
-            validTR.add(Arrays.asList(a[n-2][n-1].getValue(),a[n-1][(n+n)-1].getValue(),a[(n+n)-1][(n+n)-2].getValue(),a[(n+n)-2][n-2].getValue()
-                    ,a[n-2][(n+n)-2].getValue(),a[(n+n)-2][(n+n)-1].getValue(),a[(n+n)-1][n-1].getValue(),a[n-1][n-2].getValue()));
+            validTR.add(Arrays.asList(arc(n-2,n-1).getValue(),arc(n-1,(n+n)-1).getValue(),arc((n+n)-1,(n+n)-2).getValue(),arc((n+n)-2,n-2).getValue()
+                    ,arc(n-2,(n+n)-2).getValue(),arc((n+n)-2,(n+n)-1).getValue(),arc((n+n)-1,n-1).getValue(),arc(n-1,n-2).getValue()));
 
-            validLC.add(Arrays.asList(a[n][n+1].getValue(),a[n+1][(n+n)+1].getValue(),a[(n+n)+1][n+n].getValue(),a[n+n][n].getValue()
-                    ,a[n][n+n].getValue(),a[n+n][(n+n)+1].getValue(),a[(n+n)+1][n+1].getValue(),a[n+1][n].getValue()));
+            validLC.add(Arrays.asList(arc(n,n+1).getValue(),arc(n+1,(n+n)+1).getValue(),arc((n+n)+1,n+n).getValue(),arc(n+n,n).getValue()
+                    ,arc(n,n+n).getValue(),arc(n+n,(n+n)+1).getValue(),arc((n+n)+1,n+1).getValue(),arc(n+1,n).getValue()));
 
-            validRC.add(Arrays.asList(a[(n+n)-2][(n+n)-1].getValue(),a[(n+n)-1][(n+n+n)-1].getValue(),a[(n+n+n)-1][(n+n+n)-2].getValue(),a[(n+n+n)-2][(n+n)-2].getValue()
-                    ,a[(n+n)-2][(n+n+n)-2].getValue(),a[(n+n+n)-2][(n+n+n)-1].getValue(),a[(n+n+n)-1][(n+n)-1].getValue(),a[(n+n)-1][(n+n)-2].getValue()));
+            validRC.add(Arrays.asList(arc((n+n)-2,(n+n)-1).getValue(),arc((n+n)-1,(n+n+n)-1).getValue(),arc((n+n+n)-1,(n+n+n)-2).getValue(),arc((n+n+n)-2,(n+n)-2).getValue()
+                    ,arc((n+n)-2,(n+n+n)-2).getValue(),arc((n+n+n)-2,(n+n+n)-1).getValue(),arc((n+n+n)-1,(n+n)-1).getValue(),arc((n+n)-1,(n+n)-2).getValue()));
 
-            validC.add(Arrays.asList(a[n+1][n+2].getValue(),a[n+2][(n+n)+2].getValue(),a[(n+n)+2][(n+n)+1].getValue(),a[(n+n)+1][n+1].getValue()
-                    ,a[n+1][(n+n)+1].getValue(),a[(n+n)+1][(n+n)+2].getValue(),a[(n+n)+2][n+2].getValue(),a[n+2][n+1].getValue()));
+            validC.add(Arrays.asList(arc(n+1,n+2).getValue(),arc(n+2,(n+n)+2).getValue(),arc((n+n)+2,(n+n)+1).getValue(),arc((n+n)+1,n+1).getValue()
+                    ,arc(n+1,(n+n)+1).getValue(),arc((n+n)+1,(n+n)+2).getValue(),arc((n+n)+2,n+2).getValue(),arc(n+2,n+1).getValue()));
 
-            validBL.add(Arrays.asList(a[(n*n)-n-n][(n*n)-n-n+1].getValue(),a[(n*n)-n-n+1][(n*n)-n+1].getValue(),a[(n*n)-n+1][(n*n)-n].getValue(),a[(n*n)-n][(n*n)-n-n].getValue()
-                    ,a[(n*n)-n-n][(n*n)-n].getValue(),a[(n*n)-n][(n*n)-n+1].getValue(),a[(n*n)-n+1][(n*n)-n-n+1].getValue(),a[(n*n)-n-n+1][(n*n)-n-n].getValue()));
+            validBL.add(Arrays.asList(arc((n*n)-n-n,(n*n)-n-n+1).getValue(),arc((n*n)-n-n+1,(n*n)-n+1).getValue(),arc((n*n)-n+1,(n*n)-n).getValue(),arc((n*n)-n,(n*n)-n-n).getValue()
+                    ,arc((n*n)-n-n,(n*n)-n).getValue(),arc((n*n)-n,(n*n)-n+1).getValue(),arc((n*n)-n+1,(n*n)-n-n+1).getValue(),arc((n*n)-n-n+1,(n*n)-n-n).getValue()));
 
-            validBC.add(Arrays.asList(a[(n*n)-n-n+1][(n*n)-n-n+2].getValue(),a[(n*n)-n-n+2][(n*n)-n+2].getValue(),a[(n*n)-n+2][(n*n)-n+1].getValue(),a[(n*n)-n+1][(n*n)-n-n+1].getValue()
-                    ,a[(n*n)-n-n+1][(n*n)-n+1].getValue(),a[(n*n)-n+1][(n*n)-n+2].getValue(),a[(n*n)-n+2][(n*n)-n-n+2].getValue(),a[(n*n)-n-n+2][(n*n)-n-n+1].getValue()));
+            validBC.add(Arrays.asList(arc((n*n)-n-n+1,(n*n)-n-n+2).getValue(),arc((n*n)-n-n+2,(n*n)-n+2).getValue(),arc((n*n)-n+2,(n*n)-n+1).getValue(),arc((n*n)-n+1,(n*n)-n-n+1).getValue()
+                    ,arc((n*n)-n-n+1,(n*n)-n+1).getValue(),arc((n*n)-n+1,(n*n)-n+2).getValue(),arc((n*n)-n+2,(n*n)-n-n+2).getValue(),arc((n*n)-n-n+2,(n*n)-n-n+1).getValue()));
 
-            validBR.add(Arrays.asList(a[(n*n)-2-n][(n*n)-1-n].getValue(),a[(n*n)-1-n][(n*n)-1].getValue(),a[(n*n)-1][(n*n)-2].getValue(),a[(n*n)-2][(n*n)-2-n].getValue()
-                    ,a[(n*n)-2-n][(n*n)-2].getValue(),a[(n*n)-2][(n*n)-1].getValue(),a[(n*n)-1][(n*n)-1-n].getValue(),a[(n*n)-1-n][(n*n)-2-n].getValue()));
+            validBR.add(Arrays.asList(arc((n*n)-2-n,(n*n)-1-n).getValue(),arc((n*n)-1-n,(n*n)-1).getValue(),arc((n*n)-1,(n*n)-2).getValue(),arc((n*n)-2,(n*n)-2-n).getValue()
+                    ,arc((n*n)-2-n,(n*n)-2).getValue(),arc((n*n)-2,(n*n)-1).getValue(),arc((n*n)-1,(n*n)-1-n).getValue(),arc((n*n)-1-n,(n*n)-2-n).getValue()));
 
         }
 
@@ -0,0 +1,510 @@
+package com.puzzle.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SlitherLink solver on an embedded CDCL SAT solver.
+ *
+ * One variable per edge. Clue counts and vertex degrees are encoded as CNF by
+ * forbidding every local assignment they reject, and the deduction pre-pass
+ * adds the edges it decides as units. Connectivity is left out of the formula:
+ * whenever a model splits into several loops, clauses cutting those loops are
+ * added and the solver runs again.
+ */
+public class SLSatSolve implements SLEngine {
+
+	private static final int GUARDS = 2; // clauses cutting a loop of a removable formula
+
+	private int n; // puzzle dimension
+	private int l; // sub-tour lbound
+	private SLGrid grid; // shared topology
+	private int[][] count; // edge reqs
+	private int[][] clues; // clues enforced by the current run, a subset of count when removable
+	private boolean removable; // each clue switched by a selector variable after the edges
+
+	private volatile SatSolver sat;
+	private volatile boolean cancelled;
+	private List<int[]> cuts = new ArrayList<>(); // loop cuts found so far, kept between runs
+	private long cutCount; // loop cuts of a removable formula, which keeps them itself
+
+	private long[] solution; // edge bitset of the last loop found
+	private int solutionLength;
+	private int solutionCount;
+	private long nodeCount;
+	private long conflictCount;
+	private long solveNanos;
+
+	public SLSatSolve(int n, int[][] count) {
+		this(n, count, false);
+	}
+
+	/**
+	 * @param removable switch each clue by an assumption, for checks that drop
+	 *                  clues on one formula, see findAlternative(int[][], SLDeduce)
+	 */
+	SLSatSolve(int n, int[][] count, boolean removable) {
+		this.n = n;
+		this.count = count;
+		this.removable = removable;
+		clues = count;
+		l = (n * n) / 2;
+		grid = SLGrid.of(n);
+		solution = new long[(grid.numEdges + 63) / 64];
+	}
+
+	/**
+	 * pattern rules follow from the clause encoding
+	 */
+	@Override
+	public void rules() {
+	}
+
+	/**
+	 *
+	 * @return if solution found
+	 */
+	@Override
+	public boolean solve() {
+		run(1);
+		return solutionCount > 0;
+	}
+
+	/**
+	 *
+	 * @return solution to problem
+	 */
+	@Override
+	public int[] getSolution() {
+		if (solutionCount == 0) {
+			throw new IllegalStateException("no solution found");
+		}
+		return grid.loopSuccessors(solution);
+	}
+
+	/**
+	 *
+	 * @return bounded number of distinct loops
+	 */
+	@Override
+	public SLUniqueness uniqueness() {
+		run(2);
+		return SLUniqueness.of(solutionCount);
+	}
+
+	/**
+	 *
+	 * @return number of solutions
+	 */
+	@Override
+	public int findNumSolutions() {
+		run(Integer.MAX_VALUE);
+		return 2 * solutionCount;
+	}
+
+	/**
+	 * function for generation checks number of solutions and tour length
+	 *
+	 * @param limit
+	 * @return number solutions and tour length
+	 */
+	@Override
+	public int[] genSolutions(int limit) {
+		run((limit + 1) / 2);
+		return new int[] { Math.min(2 * solutionCount, limit), solutionLength };
+	}
+
+	/**
+	 *
+	 * @return number of decisions
+	 */
+	@Override
+	public long getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 *
+	 * @return solve time
+	 */
+	@Override
+	public float solveTime() {
+		float time = solveNanos / 1e9f;
+		System.out.println(time);
+		return time;
+	}
+
+	/**
+	 * prints solve statistics
+	 */
+	@Override
+	public void stats() {
+		System.out.println(String.format("- SAT solver: %d solutions, %d decisions, %d conflicts, %d loop cuts, %.3fs",
+				solutionCount, nodeCount, conflictCount, cuts.size() + cutCount, solveNanos / 1e9));
+	}
+
+	/**
+	 *
+	 * @return another loop than the reference, or null
+	 */
+	@Override
+	public int[] findAlternative(int[] reference) {
+		run(1, block(edges(reference)));
+		return solutionCount > 0 ? getSolution() : null;
+	}
+
+	/**
+	 * @return edges of a loop given as a successor array
+	 */
+	private int[] edges(int[] successor) {
+		List<Integer> edges = new ArrayList<>();
+		for (int v = 0; v < successor.length; v++) {
+			if (successor[v] != v) {
+				edges.add(grid.edge(v, successor[v]));
+			}
+		}
+		return edges.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Keeps the reference loop out of every later run of a removable formula
+	 *
+	 * @param reference successor array of a loop meeting the clues
+	 */
+	void exclude(int[] reference) {
+		if (sat == null && !encode()) {
+			return;
+		}
+		sat.addClause(block(edges(reference)));
+	}
+
+	/**
+	 * Looks for a loop meeting only the clues of the puzzle, which are a
+	 * subset of those the formula was built with removable. Kept clues and
+	 * the edges the deduction decided are assumptions of the run, so the
+	 * learnt clauses and loop cuts serve the next check; cuts of loops that
+	 * only break some clues hold while one of those clues is kept.
+	 *
+	 * @param puzzle clues to enforce, -1 for dropped ones
+	 * @param deduce deduction run on the puzzle
+	 * @return successor array of a loop, or null when there is none
+	 */
+	int[] findAlternative(int[][] puzzle, SLDeduce deduce) {
+		long start = System.nanoTime();
+		List<Integer> assumptions = new ArrayList<>();
+		for (int c = 0; c < grid.numCells; c++) {
+			int clue = puzzle[c / (n - 1)][c % (n - 1)];
+			int full = count[c / (n - 1)][c % (n - 1)];
+			if (clue != -1 && clue != full) {
+				throw new IllegalArgumentException("clue " + clue + " not in the formula at cell " + c);
+			}
+			if (full != -1) {
+				assumptions.add(clue != -1 ? selector(c) : -selector(c));
+			}
+		}
+		for (int e = 0; e < grid.numEdges; e++) {
+			byte s = deduce.getEdgeState(e);
+			if (s != SLDeduce.UNKNOWN) {
+				assumptions.add(s == SLDeduce.YES ? e + 1 : -(e + 1));
+			}
+		}
+		int[] assumed = assumptions.stream().mapToInt(Integer::intValue).toArray();
+		clues = puzzle;
+		solutionCount = 0;
+		boolean open = sat != null || encode();
+		if (open && !cancelled && sat.solve(this::check, assumed)) {
+			keep(loops().get(0));
+		}
+		nodeCount = sat.getDecisions();
+		conflictCount = sat.getConflicts();
+		solveNanos += System.nanoTime() - start;
+		return solutionCount > 0 ? getSolution() : null;
+	}
+
+	private void run(int limit) {
+		run(limit, null);
+	}
+
+	/**
+	 * stops the SAT search and the loop cut iterations
+	 */
+	@Override
+	public void cancel() {
+		cancelled = true;
+		SatSolver s = sat;
+		if (s != null) {
+			s.interrupt();
+		}
+	}
+
+	/**
+	 * builds the formula and enumerates up to limit distinct loops
+	 *
+	 * @param exclude clause added for this run only, or null
+	 */
+	private void run(int limit, int[] exclude) {
+		long start = System.nanoTime();
+		solutionCount = 0;
+		solutionLength = 0;
+		boolean open = encode() && (exclude == null || sat.addClause(exclude));
+		while (open && solutionCount < limit && !cancelled && sat.solve(this::check)) {
+			int[] loop = loops().get(0);
+			keep(loop);
+			open = sat.addClause(block(loop));
+		}
+		nodeCount += sat.getDecisions();
+		conflictCount += sat.getConflicts();
+		solveNanos += System.nanoTime() - start;
+	}
+
+	/**
+	 * counts a loop found as the solution
+	 */
+	private void keep(int[] loop) {
+		solutionCount++;
+		solutionLength = loop.length;
+		Arrays.fill(solution, 0);
+		for (int e : loop) {
+			solution[e >>> 6] |= 1L << e;
+		}
+	}
+
+	/**
+	 * @return variable switching the clue of a cell, when removable
+	 */
+	private int selector(int c) {
+		return grid.numEdges + c + 1;
+	}
+
+	/**
+	 * clue and degree clauses, deduced units and earlier loop cuts
+	 *
+	 * @return false if the formula is already unsatisfiable
+	 */
+	private boolean encode() {
+		sat = new SatSolver(grid.numEdges + (removable ? grid.numCells : 0));
+		if (!removable) {
+			// the decided edges of a removable formula are assumptions of each check
+			SLDeduce deduce = new SLDeduce(n, count);
+			if (!deduce.deduce()) {
+				return false;
+			}
+			for (int e = 0; e < grid.numEdges; e++) {
+				byte s = deduce.getEdgeState(e);
+				if (s != SLDeduce.UNKNOWN && !sat.addClause(s == SLDeduce.YES ? e + 1 : -(e + 1))) {
+					return false;
+				}
+			}
+		}
+		for (int c = 0; c < grid.numCells; c++) {
+			int clue = count[c / (n - 1)][c % (n - 1)];
+			if (clue >= 0 && !forbid(grid.cellEdges, 4 * c, 4, clue, clue, removable ? -selector(c) : 0)) {
+				return false;
+			}
+		}
+		for (int v = 0; v < grid.numVertices; v++) {
+			if (!forbid(grid.vertexEdges, 4 * v, grid.vertexDegree[v], 0, 2, 0)) {
+				return false;
+			}
+		}
+		// the loop is not empty
+		int[] any = new int[grid.numEdges];
+		for (int e = 0; e < grid.numEdges; e++) {
+			any[e] = e + 1;
+		}
+		if (!sat.addClause(any)) {
+			return false;
+		}
+		for (int[] cut : cuts) {
+			if (!sat.addClause(cut)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * adds a clause against every assignment of the edges whose number of
+	 * chosen edges is neither a nor b
+	 *
+	 * @param guard literal added to each clause, 0 for none
+	 */
+	private boolean forbid(int[] edges, int offset, int size, int a, int b, int guard) {
+		for (int mask = 0; mask < 1 << size; mask++) {
+			int used = Integer.bitCount(mask);
+			if (used == a || used == b) {
+				continue;
+			}
+			int[] clause = new int[guard != 0 ? size + 1 : size];
+			for (int k = 0; k < size; k++) {
+				int var = edges[offset + k] + 1;
+				clause[k] = (mask >> k & 1) == 1 ? -var : var;
+			}
+			if (guard != 0) {
+				clause[size] = guard;
+			}
+			if (!sat.addClause(clause)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * loops of the current model, as edge lists
+	 */
+	private List<int[]> loops() {
+		List<int[]> loops = new ArrayList<>();
+		boolean[] visited = new boolean[grid.numEdges];
+		for (int e = 0; e < grid.numEdges; e++) {
+			if (visited[e] || !sat.modelValue(e + 1)) {
+				continue;
+			}
+			List<Integer> loop = new ArrayList<>();
+			int start = grid.edgeFrom[e];
+			int v = start;
+			int f = e;
+			do {
+				visited[f] = true;
+				loop.add(f);
+				v = grid.other(f, v);
+				f = next(v, f);
+			} while (v != start);
+			loops.add(loop.stream().mapToInt(Integer::intValue).toArray());
+		}
+		return loops;
+	}
+
+	/**
+	 * @return chosen edge at v other than f
+	 */
+	private int next(int v, int f) {
+		for (int k = 0; k < grid.vertexDegree[v]; k++) {
+			int e = grid.vertexEdge(v, k);
+			if (e != f && sat.modelValue(e + 1)) {
+				return e;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Accepts a model that is one loop long enough, else cuts its loops off
+	 * while the solver searches on
+	 *
+	 * @return loop cuts, none for a solution
+	 */
+	private List<int[]> check() {
+		List<int[]> loops = loops();
+		if (loops.size() == 1 && loops.get(0).length >= l) {
+			return new ArrayList<>();
+		}
+		return cut(loops);
+	}
+
+	/**
+	 * A solution holding every edge of a loop is that loop, so a loop that is
+	 * not a solution on its own is cut by itself. A loop that is, can only be
+	 * cut together with another loop.
+	 *
+	 * @return cuts, also kept for later formulas unless the formula is one
+	 *         session built once
+	 */
+	private List<int[]> cut(List<int[]> loops) {
+		List<int[]> added = new ArrayList<>();
+		boolean[] alone = new boolean[loops.size()];
+		for (int i = 0; i < loops.size(); i++) {
+			alone[i] = alone(loops.get(i));
+			if (!alone[i]) {
+				added.addAll(guarded(loops.get(i)));
+			}
+		}
+		for (int i = 0; i < loops.size(); i++) {
+			for (int j = i + 1; j < loops.size(); j++) {
+				if (alone[i] && alone[j]) {
+					int[] both = new int[loops.get(i).length + loops.get(j).length];
+					System.arraycopy(block(loops.get(i)), 0, both, 0, loops.get(i).length);
+					System.arraycopy(block(loops.get(j)), 0, both, loops.get(i).length, loops.get(j).length);
+					added.add(both);
+				}
+			}
+		}
+		if (removable) {
+			cutCount += added.size();
+		} else {
+			cuts.addAll(added);
+		}
+		return added;
+	}
+
+	/**
+	 * @return if the loop with every other edge empty meets all clues
+	 */
+	private boolean alone(int[] loop) {
+		if (loop.length < l) {
+			return false;
+		}
+		int[] used = around(loop);
+		for (int c = 0; c < grid.numCells; c++) {
+			int clue = clues[c / (n - 1)][c % (n - 1)];
+			if (clue >= 0 && used[c] != clue) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return edges of the loop around each cell
+	 */
+	private int[] around(int[] loop) {
+		int[] used = new int[grid.numCells];
+		for (int e : loop) {
+			for (int k = 0; k < 2; k++) {
+				int c = grid.edgeCells[2 * e + k];
+				if (c != -1) {
+					used[c]++;
+				}
+			}
+		}
+		return used;
+	}
+
+	/**
+	 * Cuts of a loop that is no solution on its own. On a removable formula a
+	 * long enough loop only fails the clues it breaks, so it is cut while one
+	 * of them is kept: a clause for each of the first GUARDS broken clues the
+	 * check keeps, not for every one, as each clause is as long as the loop.
+	 * Later checks drop few clues and cut the loop again if they drop those.
+	 */
+	private List<int[]> guarded(int[] loop) {
+		List<int[]> clauses = new ArrayList<>();
+		int[] clause = block(loop);
+		if (!removable || loop.length < l) {
+			clauses.add(clause);
+			return clauses;
+		}
+		int[] used = around(loop);
+		for (int c = 0; c < grid.numCells && clauses.size() < GUARDS; c++) {
+			int clue = clues[c / (n - 1)][c % (n - 1)];
+			if (clue >= 0 && used[c] != clue) {
+				int[] kept = Arrays.copyOf(clause, loop.length + 1);
+				kept[loop.length] = -selector(c);
+				clauses.add(kept);
+			}
+		}
+		return clauses;
+	}
+
+	/**
+	 * @return clause excluding every edge of a loop being chosen
+	 */
+	private static int[] block(int[] loop) {
+		int[] clause = new int[loop.length];
+		for (int k = 0; k < loop.length; k++) {
+			clause[k] = -(loop[k] + 1);
+		}
+		return clause;
+	}
+}
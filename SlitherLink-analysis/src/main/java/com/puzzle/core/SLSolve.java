@@ -1,22 +1,30 @@
 package com.puzzle.core;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.Model;
 import org.chocosolver.solver.Solution;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.Constraint;
-import org.chocosolver.solver.constraints.extension.Tuples;
 import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.solver.search.limits.FailCounter;
 import org.chocosolver.solver.search.strategy.Search;
+import org.chocosolver.solver.search.strategy.selectors.values.IntDomainMax;
+import org.chocosolver.solver.search.strategy.selectors.variables.DomOverWDeg;
+import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
+import org.chocosolver.solver.variables.BoolVar;
 import org.chocosolver.solver.variables.IntVar;
-import org.chocosolver.util.tools.ArrayUtils;
-
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Reads in a SlitherLink puzzle and returns a solution
  */
-public class SLSolve {
+public class SLSolve implements SLEngine {
+
+	private static final int RESTART_BASE = 100; // fails before the first restart
+	private static final int RESTART_LIMIT = 10000; // restarts, then the search runs to completion
 
 	private int n; // puzzle dimension
 	private int m; // sub-tour ubound
@@ -26,96 +34,153 @@ public class SLSolve {
 	private Solver solver;
 
 	private int[][] count; // edge reqs
-	private IntVar[][] a; // adjacency matrix
-	private IntVar[][] v; // vertex matrix
+	private SLGrid grid; // shared topology
+	private BoolVar[] arcs; // arc 2e runs along edge e from its lower vertex, 2e + 1 back
 	private IntVar[] tour; // sub-tour array
+	private BoolVar[] edges; // edge booleans of the propagator model
 	private IntVar tourLength;
 	private Boolean trace;
+	private SLLoopModel loopModel;
+	private boolean oriented; // each loop found once, see breakSymmetry
+	private int[] found; // first loop of the last uniqueness check
+	private volatile boolean cancelled;
+	private SLStrategy strategy;
+	private boolean restarting; // restarts and solution nogoods plugged
+	private IntVar[] clueSum; // edges used around each clue cell, null unless clues are removable
+	private BoolVar[] used; // edge on the loop, subCircuit model with removable clues
+	private boolean largeGrid; // restarts with nogood recording
+	private SLRestarts restarts; // counters of the large-grid mode, null until its first search
 
 	public SLSolve(int n, int[][] count, Boolean trace) {
+		this(n, count, trace, SLLoopModel.SUBCIRCUIT);
+	}
+
+	public SLSolve(int n, int[][] count, Boolean trace, SLLoopModel loopModel) {
+		this(n, count, trace, loopModel, false);
+	}
+
+	/**
+	 * @param removable post each clue under a switch, for checks that drop clues
+	 *                  inside a world, see findAlternative(int[][], SLDeduce)
+	 */
+	SLSolve(int n, int[][] count, Boolean trace, SLLoopModel loopModel, boolean removable) {
 		this.trace = trace;
+		this.loopModel = loopModel;
 		model = new Model("SL Solver");
 		solver = model.getSolver();
+		solver.addStopCriterion(() -> cancelled);
 		this.n = n;
 		this.count = count;
 		m = n * n;
 		l = m / 2;
-		a = new IntVar[n * n][n * n];
-		v = new IntVar[n][n];
-
-		// create node grid
-		// define domains
-		for (int i = 0; i < n; i++) {
-			for (int j = 0; j < n; j++) {
-				ArrayList<Integer> dom = new ArrayList<>();
-				if (i > 0)
-					dom.add((i - 1) * n + j); // above
-				if (j > 0)
-					dom.add(i * n + j - 1); // left
-				dom.add(i * n + j); // itself
-				if (j < n - 1)
-					dom.add(i * n + j + 1);// right
-				if (i < n - 1)
-					dom.add((i + 1) * n + j);// below
-
-				int[] domain = new int[dom.size()];
-				int k = 0;
-				for (int x : dom) {
-					domain[k++] = x;
-				}
-				v[i][j] = model.intVar("v[" + i + "]" + "[" + j + "]", domain);
-			}
+		grid = SLGrid.of(n);
+		strategy = SLStrategy.tuned(loopModel, n, count);
+		if (removable) {
+			clueSum = new IntVar[grid.numCells];
+		}
+
+		if (loopModel == SLLoopModel.PROPAGATOR) {
+			loopConstraint();
+			return;
+		}
+		tour = new IntVar[n * n];
+
+		// create node grid, each vertex points to a neighbour or itself
+		for (int i = 0; i < n * n; i++) {
+			tour[i] = model.intVar(grid.successors(i));
 		}
 		if (trace) {
 			for (int i = 0; i < n; i++) {
 				for (int j = 0; j < n; j++)
-					System.out.print(v[i][j] + " ");
+					System.out.print(tour[i * n + j] + " ");
 				System.out.println();
 			}
 		}
 
 		// subtour constraint
-		tourLength = model.intVar("tour length", l, m);
-		tour = ArrayUtils.flatten(v);
+		tourLength = model.intVar(l, m);
 
 		model.subCircuit(tour, 0, tourLength).post();
 
-		// Link tour with adjacency matrix
-		for (int i = 0; i < n * n; i++) {
-			int ub = tour[i].getUB();
-			for (int j = tour[i].getLB(); j <= ub; j = tour[i].nextValue(j))
-				if (i != j) {
-					a[i][j] = model.intVar("A[" + i + "][" + j + "]", 0, 1);
-					model.ifOnlyIf(model.arithm(a[i][j], "=", 1), model.arithm(tour[i], "=", j));
-					// efficient search
-					model.ifThen(model.arithm(tour[i], "=", j), model.arithm(tour[j], "!=", i));
-
-				}
+		// arcs are views on the tour, an edge is used in one direction at most
+		arcs = new BoolVar[2 * grid.numEdges];
+		for (int e = 0; e < grid.numEdges; e++) {
+			arcs[2 * e] = model.intEqView(tour[grid.edgeFrom[e]], grid.edgeTo[e]);
+			arcs[2 * e + 1] = model.intEqView(tour[grid.edgeTo[e]], grid.edgeFrom[e]);
+			model.arithm(arcs[2 * e], "+", arcs[2 * e + 1], "<=", 1).post();
+		}
+		if (removable) {
+			used = new BoolVar[grid.numEdges];
+			for (int e = 0; e < grid.numEdges; e++) {
+				used[e] = model.arithm(arcs[2 * e], "+", arcs[2 * e + 1], "=", 1).reify();
+			}
 		}
 
 		// constrain square edges
 		for (int i = 0; i < n - 1; i++) {
 			for (int j = 0; j < n - 1; j++) {
 				if (count[i][j] > -1) {
-					IntVar[] e = new IntVar[] { a[(i * n) + j][(i * n) + j + 1], // top
-							a[(i * n) + j + 1][(i * n) + j], // top
+					IntVar[] e = new IntVar[] { arc((i * n) + j, (i * n) + j + 1), // top
+							arc((i * n) + j + 1, (i * n) + j), // top
 
-							a[(i * n) + j + n][(i * n) + j + n + 1], // bottom
-							a[(i * n) + j + n + 1][(i * n) + j + n], // bottom
+							arc((i * n) + j + n, (i * n) + j + n + 1), // bottom
+							arc((i * n) + j + n + 1, (i * n) + j + n), // bottom
 
-							a[(i * n) + j][(i * n) + j + n], // left
-							a[(i * n) + j + n][(i * n) + j], // left
+							arc((i * n) + j, (i * n) + j + n), // left
+							arc((i * n) + j + n, (i * n) + j), // left
 
-							a[(i * n) + j + 1][(i * n) + j + n + 1], // right
-							a[(i * n) + j + n + 1][(i * n) + j + 1] // right
+							arc((i * n) + j + 1, (i * n) + j + n + 1), // right
+							arc((i * n) + j + n + 1, (i * n) + j + 1) // right
 					};
-					model.sum(e, "=", count[i][j]).post();
+					postClue(i * (n - 1) + j, e, count[i][j]);
 				}
 			}
 		}
 
 	}
 
+	/**
+	 * one boolean per edge, the loop enforced by PropSingleLoop
+	 */
+	private void loopConstraint() {
+		edges = model.boolVarArray("edge", grid.numEdges);
+		tourLength = model.intVar(l, m);
+		model.sum(edges, "=", tourLength).post();
+		new Constraint("SingleLoop", new PropSingleLoop(edges, grid, l)).post();
+
+		// constrain square edges
+		for (int c = 0; c < grid.numCells; c++) {
+			int clue = count[c / (n - 1)][c % (n - 1)];
+			if (clue > -1) {
+				IntVar[] e = new IntVar[] { edges[grid.cellEdge(c, 0)], edges[grid.cellEdge(c, 1)],
+						edges[grid.cellEdge(c, 2)], edges[grid.cellEdge(c, 3)] };
+				postClue(c, e, clue);
+			}
+		}
+	}
+
+	/**
+	 * the clue of a cell, or when clues are removable the number of edges used
+	 * around it, fixed to the clue while the clue is kept
+	 */
+	private void postClue(int c, IntVar[] e, int clue) {
+		if (clueSum == null) {
+			model.sum(e, "=", clue).post();
+		} else {
+			clueSum[c] = model.intVar("clue" + c, 0, 4);
+			model.sum(e, "=", clueSum[c]).post();
+		}
+	}
+
+	/**
+	 * 
+	 * @return arc variable from one vertex to an adjacent one
+	 */
+	private BoolVar arc(int from, int to) {
+		int e = grid.edge(from, to);
+		return arcs[2 * e + (from < to ? 0 : 1)];
+	}
+
 	/**
 	 * 
 	 * @return solve time
@@ -129,282 +194,237 @@ public class SLSolve {
 	 * applies table constraints for allowed values
 	 */
 	public void rules() {
-		Tuples LC = new Tuples();
-		LC.add(1, 1, 1, 0, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 1, 0, 1, 1);
-		LC.add(0, 0, 0, 0, 1, 1, 1, 0);
-		LC.add(0, 0, 0, 0, 0, 0, 0, 0);
-		LC.add(1, 0, 0, 0, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 1, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 0, 0, 1);
-		LC.add(0, 0, 0, 0, 0, 1, 0, 1);
-		LC.add(0, 1, 1, 1, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 1, 0, 0, 0, 0);
-		LC.add(1, 0, 0, 1, 0, 0, 0, 0);
-		LC.add(0, 0, 1, 0, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 0, 1, 0);
-		LC.add(0, 0, 0, 0, 1, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 1, 1, 0);
-		LC.add(0, 0, 0, 0, 1, 0, 0, 1);
-		LC.add(0, 0, 0, 0, 1, 1, 0, 0);
-		LC.add(1, 0, 1, 0, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 0, 1, 1);
-		LC.add(0, 0, 0, 0, 1, 1, 0, 1);
-		LC.add(0, 0, 1, 1, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 0, 1, 1, 1);
-		LC.add(0, 1, 0, 0, 0, 0, 0, 0);
-		LC.add(1, 0, 1, 1, 0, 0, 0, 0);
-		LC.add(1, 1, 0, 0, 0, 0, 0, 0);
-		LC.add(0, 1, 0, 1, 0, 0, 0, 0);
-		LC.add(1, 1, 0, 1, 0, 0, 0, 0);
-		LC.add(0, 0, 0, 0, 1, 0, 1, 0);
-		LC.add(0, 1, 1, 0, 0, 0, 0, 0);
-
-		for (int i = n; i < n - 1; i += n) {
-			IntVar[] adjLC = new IntVar[] { a[i][i + 1], a[i + 1][(i + n) + 1], a[(i + n) + 1][i + n], a[i + n][i],
-					a[i][i + n], a[i + n][(i + n) + 1], a[(i + n) + 1][i + 1], a[i + 1][i] };
-			model.table(adjLC, LC).post();
-
-		}
-
-		Tuples RC = new Tuples();
-		RC.add(1, 1, 1, 0, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 1, 1, 1, 0);
-		RC.add(0, 0, 0, 0, 1, 0, 1, 1);
-		RC.add(1, 0, 0, 0, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 1, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 0, 0, 1);
-		RC.add(0, 0, 0, 0, 0, 1, 0, 1);
-		RC.add(0, 1, 1, 1, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 1, 0, 0, 0, 0);
-		RC.add(1, 0, 0, 1, 0, 0, 0, 0);
-		RC.add(0, 0, 1, 0, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 0, 1, 0);
-		RC.add(0, 0, 0, 0, 1, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 1, 1, 0);
-		RC.add(0, 0, 0, 0, 0, 0, 1, 1);
-		RC.add(0, 0, 0, 0, 1, 1, 0, 0);
-		RC.add(0, 0, 0, 0, 1, 0, 0, 1);
-		RC.add(1, 0, 1, 0, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 0, 1, 1, 1);
-		RC.add(0, 0, 0, 0, 1, 1, 0, 1);
-		RC.add(0, 0, 1, 1, 0, 0, 0, 0);
-		RC.add(0, 1, 0, 0, 0, 0, 0, 0);
-		RC.add(1, 0, 1, 1, 0, 0, 0, 0);
-		RC.add(1, 1, 0, 0, 0, 0, 0, 0);
-		RC.add(1, 1, 0, 1, 0, 0, 0, 0);
-		RC.add(0, 1, 0, 1, 0, 0, 0, 0);
-		RC.add(0, 0, 0, 0, 1, 0, 1, 0);
-		RC.add(0, 1, 1, 0, 0, 0, 0, 0);
-
-		for (int i = n; i < n - 1; i += n) {
-			IntVar[] adjRC = new IntVar[] { a[(i + n) - 2][(i + n) - 1], a[(i + n) - 1][(i + n + n) - 1],
-					a[(i + n + n) - 1][(i + n + n) - 2], a[(i + n + n) - 2][(i + n) - 2],
-					a[(i + n) - 2][(i + n + n) - 2], a[(i + n + n) - 2][(i + n + n) - 1],
-					a[(i + n + n) - 1][(i + n) - 1], a[(i + n) - 1][(i + n) - 2] };
-			model.table(adjRC, RC).post();
-
-		}
-
-		Tuples TL = new Tuples();
-		TL.add(0, 0, 0, 0, 1, 0, 1, 1);
-		TL.add(0, 0, 0, 0, 0, 0, 1, 0);
-		TL.add(0, 0, 0, 0, 0, 0, 0, 0);
-		TL.add(0, 0, 0, 0, 1, 0, 0, 1);
-		TL.add(0, 0, 0, 0, 0, 1, 1, 0);
-		TL.add(0, 0, 0, 0, 0, 1, 0, 0);
-		TL.add(0, 0, 0, 0, 1, 1, 0, 1);
-		TL.add(0, 1, 0, 0, 0, 0, 0, 0);
-		TL.add(1, 0, 1, 1, 0, 0, 0, 0);
-		TL.add(1, 0, 0, 1, 0, 0, 0, 0);
-		TL.add(0, 0, 1, 0, 0, 0, 0, 0);
-		TL.add(1, 1, 0, 1, 0, 0, 0, 0);
-		TL.add(0, 1, 1, 0, 0, 0, 0, 0);
-
-		IntVar[] adjTL = new IntVar[] { a[0][1], a[1][n + 1], a[n + 1][n], a[n][0], a[0][n], a[n][n + 1], a[n + 1][1],
-				a[1][0] };
-
-		model.table(adjTL, TL).post();
-
-		Tuples TC = new Tuples();
-		TC.add(1, 1, 1, 0, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 1, 1, 1, 0);
-		TC.add(0, 0, 0, 0, 1, 0, 1, 1);
-		TC.add(0, 0, 0, 0, 0, 0, 0, 0);
-		TC.add(1, 0, 0, 0, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 0, 1, 0, 0);
-		TC.add(0, 0, 0, 0, 0, 0, 0, 1);
-		TC.add(0, 0, 0, 0, 0, 1, 0, 1);
-		TC.add(0, 1, 1, 1, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 1, 0, 0, 0, 0);
-		TC.add(1, 0, 0, 1, 0, 0, 0, 0);
-		TC.add(0, 0, 1, 0, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 1, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 0, 0, 1, 0);
-		TC.add(0, 0, 0, 0, 0, 1, 1, 0);
-		TC.add(0, 0, 0, 0, 1, 1, 0, 0);
-		TC.add(0, 0, 0, 0, 1, 0, 0, 1);
-		TC.add(0, 0, 0, 0, 0, 0, 1, 1);
-		TC.add(1, 0, 1, 0, 0, 0, 0, 0);
-		TC.add(0, 0, 1, 1, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 0, 1, 1, 1);
-		TC.add(0, 0, 0, 0, 1, 1, 0, 1);
-		TC.add(0, 1, 0, 0, 0, 0, 0, 0);
-		TC.add(1, 0, 1, 1, 0, 0, 0, 0);
-		TC.add(1, 1, 0, 0, 0, 0, 0, 0);
-		TC.add(0, 0, 0, 0, 1, 0, 1, 0);
-		TC.add(0, 1, 0, 1, 0, 0, 0, 0);
-		TC.add(1, 1, 0, 1, 0, 0, 0, 0);
-		TC.add(0, 1, 1, 0, 0, 0, 0, 0);
-		for (int i = 1; i < n - 2; i++) {
-			IntVar[] adjTC = new IntVar[] { a[i][i + 1], a[i + 1][i + n + 1], a[i + n + 1][i + n], a[i + n][i],
-					a[i][i + n], a[i + n][i + n + 1], a[i + n + 1][i + 1], a[i + 1][i] };
-			model.table(adjTC, TC).post();
-
-		}
-
-		Tuples BC = new Tuples();
-		BC.add(1, 1, 1, 0, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 1, 1, 1, 0);
-		BC.add(0, 0, 0, 0, 1, 0, 1, 1);
-		BC.add(0, 0, 0, 0, 0, 0, 0, 0);
-		BC.add(1, 0, 0, 0, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 0, 0, 0, 1);
-		BC.add(0, 0, 0, 0, 0, 1, 0, 0);
-		BC.add(0, 0, 0, 0, 0, 1, 0, 1);
-		BC.add(0, 1, 1, 1, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 1, 0, 0, 0, 0);
-		BC.add(1, 0, 0, 1, 0, 0, 0, 0);
-		BC.add(0, 0, 1, 0, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 0, 0, 1, 0);
-		BC.add(0, 0, 0, 0, 1, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 1, 0, 0, 1);
-		BC.add(1, 0, 1, 0, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 0, 1, 1, 0);
-		BC.add(0, 0, 0, 0, 1, 1, 0, 0);
-		BC.add(0, 0, 0, 0, 0, 0, 1, 1);
-		BC.add(0, 0, 1, 1, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 1, 1, 0, 1);
-		BC.add(0, 0, 0, 0, 0, 1, 1, 1);
-		BC.add(1, 0, 1, 1, 0, 0, 0, 0);
-		BC.add(0, 1, 0, 0, 0, 0, 0, 0);
-		BC.add(1, 1, 0, 0, 0, 0, 0, 0);
-		BC.add(0, 1, 0, 1, 0, 0, 0, 0);
-		BC.add(1, 1, 0, 1, 0, 0, 0, 0);
-		BC.add(0, 0, 0, 0, 1, 0, 1, 0);
-		BC.add(0, 1, 1, 0, 0, 0, 0, 0);
-		for (int i = 1; i < n - 2; i++) {
-			IntVar[] adjBC = new IntVar[] { a[(n * n) - n - n + i][(n * n) - n - n + i + 1],
-					a[(n * n) - n - n + i + 1][(n * n) - n + i + 1], a[(n * n) - n + i + 1][(n * n) - n + i],
-					a[(n * n) - n + i][(n * n) - n - n + i], a[(n * n) - n - n + i][(n * n) - n + i],
-					a[(n * n) - n + i][(n * n) - n + i + 1], a[(n * n) - n + i + 1][(n * n) - n - n + i + 1],
-					a[(n * n) - n - n + i + 1][(n * n) - n - n + i] };
-			model.table(adjBC, BC).post();
-
-		}
-
-		Tuples TR = new Tuples();
-		TR.add(1, 1, 1, 0, 0, 0, 0, 0);
-		TR.add(0, 0, 0, 0, 1, 0, 1, 1);
-		TR.add(0, 0, 0, 0, 1, 0, 0, 0);
-		TR.add(0, 0, 0, 0, 1, 1, 0, 0);
-		TR.add(0, 0, 0, 0, 0, 0, 0, 0);
-		TR.add(0, 0, 0, 0, 0, 0, 1, 1);
-		TR.add(0, 0, 0, 0, 0, 1, 0, 0);
-		TR.add(0, 0, 0, 0, 0, 1, 1, 1);
-		TR.add(0, 0, 1, 1, 0, 0, 0, 0);
-		TR.add(1, 1, 0, 0, 0, 0, 0, 0);
-		TR.add(0, 0, 0, 1, 0, 0, 0, 0);
-		TR.add(0, 0, 1, 0, 0, 0, 0, 0);
-		TR.add(1, 1, 0, 1, 0, 0, 0, 0);
-
-		IntVar[] adjTR = new IntVar[] { a[n - 2][n - 1], a[n - 1][(n + n) - 1], a[(n + n) - 1][(n + n) - 2],
-				a[(n + n) - 2][n - 2], a[n - 2][(n + n) - 2], a[(n + n) - 2][(n + n) - 1], a[(n + n) - 1][n - 1],
-				a[n - 1][n - 2] };
-		model.table(adjTR, TC).post();
-
-		Tuples BL = new Tuples();
-		BL.add(0, 0, 0, 0, 1, 1, 1, 0);
-		BL.add(0, 0, 0, 0, 0, 0, 1, 0);
-		BL.add(0, 0, 0, 0, 0, 0, 1, 1);
-		BL.add(0, 0, 0, 0, 0, 0, 0, 0);
-		BL.add(1, 0, 0, 0, 0, 0, 0, 0);
-		BL.add(0, 0, 0, 0, 1, 1, 0, 0);
-		BL.add(0, 0, 1, 1, 0, 0, 0, 0);
-		BL.add(0, 0, 0, 0, 0, 0, 0, 1);
-		BL.add(0, 0, 0, 0, 1, 1, 0, 1);
-		BL.add(1, 0, 1, 1, 0, 0, 0, 0);
-		BL.add(0, 1, 0, 0, 0, 0, 0, 0);
-		BL.add(1, 1, 0, 0, 0, 0, 0, 0);
-		BL.add(0, 1, 1, 1, 0, 0, 0, 0);
-
-		IntVar[] adjBL = new IntVar[] { a[(n * n) - n - n][(n * n) - n - n + 1],
-				a[(n * n) - n - n + 1][(n * n) - n + 1], a[(n * n) - n + 1][(n * n) - n],
-				a[(n * n) - n][(n * n) - n - n], a[(n * n) - n - n][(n * n) - n], a[(n * n) - n][(n * n) - n + 1],
-				a[(n * n) - n + 1][(n * n) - n - n + 1], a[(n * n) - n - n + 1][(n * n) - n - n] };
-		model.table(adjBL, BL).post();
-
-		Tuples BR = new Tuples();
-		BR.add(1, 1, 1, 0, 0, 0, 0, 0);
-		BR.add(0, 0, 0, 0, 1, 1, 1, 0);
-		BR.add(0, 0, 0, 0, 1, 0, 0, 0);
-		BR.add(0, 0, 0, 0, 0, 0, 0, 0);
-		BR.add(0, 0, 0, 0, 0, 1, 1, 0);
-		BR.add(1, 0, 0, 0, 0, 0, 0, 0);
-		BR.add(0, 0, 0, 0, 1, 0, 0, 1);
-		BR.add(0, 0, 0, 0, 0, 1, 1, 1);
-		BR.add(0, 0, 0, 0, 0, 0, 0, 1);
-		BR.add(0, 1, 1, 1, 0, 0, 0, 0);
-		BR.add(0, 0, 0, 1, 0, 0, 0, 0);
-		BR.add(1, 0, 0, 1, 0, 0, 0, 0);
-		BR.add(0, 1, 1, 0, 0, 0, 0, 0);
-		IntVar[] adjBR = new IntVar[] { a[(n * n) - 2 - n][(n * n) - 1 - n], a[(n * n) - 1 - n][(n * n) - 1],
-				a[(n * n) - 1][(n * n) - 2], a[(n * n) - 2][(n * n) - 2 - n], a[(n * n) - 2 - n][(n * n) - 2],
-				a[(n * n) - 2][(n * n) - 1], a[(n * n) - 1][(n * n) - 1 - n], a[(n * n) - 1 - n][(n * n) - 2 - n] };
-		model.table(adjBR, BR).post();
-
-		Tuples C = new Tuples();
-		C.add(1, 1, 1, 0, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 1, 0, 1, 1);
-		C.add(0, 0, 0, 0, 1, 1, 1, 0);
-		C.add(1, 0, 0, 0, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 0, 1, 0, 0);
-		C.add(0, 0, 0, 0, 0, 0, 0, 1);
-		C.add(0, 0, 0, 0, 0, 1, 0, 1);
-		C.add(0, 1, 1, 1, 0, 0, 0, 0);
-		C.add(0, 0, 0, 1, 0, 0, 0, 0);
-		C.add(1, 0, 0, 1, 0, 0, 0, 0);
-		C.add(0, 0, 1, 0, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 1, 0, 0, 0);
-		C.add(0, 0, 0, 0, 0, 0, 1, 0);
-		C.add(0, 0, 0, 0, 1, 1, 0, 0);
-		C.add(1, 0, 1, 0, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 1, 0, 0, 1);
-		C.add(0, 0, 0, 0, 0, 0, 1, 1);
-		C.add(0, 0, 0, 0, 0, 1, 1, 0);
-		C.add(0, 0, 1, 1, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 1, 1, 0, 1);
-		C.add(0, 0, 0, 0, 0, 1, 1, 1);
-		C.add(1, 0, 1, 1, 0, 0, 0, 0);
-		C.add(0, 1, 0, 0, 0, 0, 0, 0);
-		C.add(1, 1, 0, 0, 0, 0, 0, 0);
-		C.add(1, 1, 0, 1, 0, 0, 0, 0);
-		C.add(0, 1, 0, 1, 0, 0, 0, 0);
-		C.add(0, 0, 0, 0, 1, 0, 1, 0);
-		C.add(0, 1, 1, 0, 0, 0, 0, 0);
-		for (int i = 1; i < n - 2; i++) {
-			for (int j = n; j < n - 2; j++) {
-				IntVar[] adjC = new IntVar[] { a[(j * i) + 1][(j * i) + 2], a[(j * i) + 2][((j * i) + n) + 2],
-						a[((j * i) + n) + 2][((j * i) + n) + 1], a[((j * i) + n) + 1][(j * i) + 1],
-						a[(j * i) + 1][((j * i) + n) + 1], a[((j * i) + n) + 1][((j * i) + n) + 2],
-						a[((j * i) + n) + 2][(j * i) + 2], a[(j * i) + 2][(j * i) + 1] };
-
-				model.table(adjC, C).post();
+		if (loopModel == SLLoopModel.PROPAGATOR) {
+			SLPatterns.postEdges(model, grid, edges, count, l);
+		} else {
+			SLPatterns.post(model, grid, arcs, count, l);
+		}
+	}
+
+	/**
+	 * Runs the deduction rules and fixes the edges they decide before search
+	 * 
+	 * @return false if the rules show there is no solution
+	 */
+	public boolean presolve() {
+		SLDeduce deduce = new SLDeduce(n, count);
+		try {
+			if (deduce.deduce()) {
+				for (int e = 0; e < grid.numEdges; e++) {
+					byte s = deduce.getEdgeState(e);
+					if (s != SLDeduce.UNKNOWN) {
+						fixEdge(e, s == SLDeduce.YES);
+					}
+				}
+				return true;
 			}
+		} catch (ContradictionException ex) {
+			// decided edges clash with the model bounds
 		}
+		model.falseConstraint().post();
+		return false;
+	}
 
+	/**
+	 * fixes an edge at the root of the search
+	 */
+	private void fixEdge(int e, boolean used) throws ContradictionException {
+		int from = grid.edgeFrom[e];
+		int to = grid.edgeTo[e];
+		if (loopModel == SLLoopModel.PROPAGATOR) {
+			edges[e].instantiateTo(used ? 1 : 0, Cause.Null);
+		} else if (used) {
+			model.arithm(arcs[2 * e], "+", arcs[2 * e + 1], "=", 1).post();
+		} else {
+			tour[from].removeValue(to, Cause.Null);
+			tour[to].removeValue(from, Cause.Null);
+		}
+	}
+
+	/**
+	 * Fixes the direction of the tour so each loop is found once. The smallest
+	 * vertex on a loop has no neighbour above or to its left on it, so the loop
+	 * leaves it to the right. The edge model finds each loop once already.
+	 * Call before any search.
+	 */
+	public void breakSymmetry() {
+		if (loopModel == SLLoopModel.PROPAGATOR || oriented) {
+			return;
+		}
+		oriented = true;
+		// before is true once some vertex below i is on the loop
+		BoolVar before = model.boolVar(false);
+		for (int i = 0; i < m; i++) {
+			BoolVar used = model.intNeView(tour[i], i);
+			if (i % n == n - 1) {
+				// a last column vertex cannot be the smallest
+				model.addClauses(new BoolVar[] { before }, new BoolVar[] { used });
+			} else {
+				model.addClauses(new BoolVar[] { before, arc(i, i + 1) }, new BoolVar[] { used });
+			}
+			if (i + 1 < m) {
+				BoolVar next = model.boolVar();
+				model.addClausesBoolOrEqVar(before, used, next);
+				before = next;
+			}
+		}
+	}
+
+	/**
+	 * Stops the search after the given time, as in "60 s"
+	 * 
+	 * @param duration
+	 */
+	void limitTime(String duration) {
+		solver.limitTime(duration);
+	}
+
+	/**
+	 * stops the search at the next node
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * 
+	 * @return if the last search stopped on a limit
+	 */
+	boolean isStopped() {
+		return solver.isStopCriterionMet();
+	}
+
+	/**
+	 * Replaces the tuned search strategy, before any search
+	 * 
+	 * @param strategy
+	 */
+	public void setStrategy(SLStrategy strategy) {
+		this.strategy = strategy;
+	}
+
+	/**
+	 * Turns on the large-grid mode before any search: Luby restarts, unless the
+	 * strategy restarts geometrically, with the refuted subtrees and solutions
+	 * recorded as nogoods. Not for models with removable clues, their nogoods
+	 * would outlive the clues they were learnt under.
+	 * 
+	 * @param largeGrid
+	 */
+	public void setLargeGrid(boolean largeGrid) {
+		if (largeGrid && clueSum != null) {
+			throw new IllegalStateException("large-grid mode on a model with removable clues");
+		}
+		this.largeGrid = largeGrid;
+	}
+
+	/**
+	 * 
+	 * @return restarts made by the large-grid mode
+	 */
+	public long getRestartCount() {
+		return restarts == null ? 0 : restarts.getRestarts();
+	}
+
+	/**
+	 * 
+	 * @return nogoods learnt at the restarts of the large-grid mode
+	 */
+	public long getNogoodCount() {
+		return restarts == null ? 0 : restarts.getNogoods();
+	}
+
+	/**
+	 * 
+	 * @return search strategy in use
+	 */
+	public SLStrategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Applies the strategy. Restarts, and the sampling restarts of activity
+	 * based search, come with nogoods on the solutions found so counting after
+	 * a restart does not find a solution twice. The large-grid mode restarts
+	 * whatever the strategy and also keeps the subtrees refuted before each
+	 * restart as nogoods.
+	 */
+	private void setSearch() {
+		IntVar[] vars = loopModel == SLLoopModel.PROPAGATOR ? edges
+				: strategy.getBranching() == SLStrategy.Branching.EDGES ? arcs : tour;
+		AbstractStrategy<IntVar> search;
+		switch (strategy.getHeuristic()) {
+		case DOM_WDEG:
+			search = vars == tour ? Search.domOverWDegSearch(vars) : new DomOverWDeg(vars, 0, new IntDomainMax());
+			break;
+		case ACTIVITY:
+			search = Search.activityBasedSearch(vars);
+			break;
+		case CONFLICT_ORDERING:
+			search = Search.conflictOrderingSearch(firstFail(vars));
+			break;
+		default:
+			search = firstFail(vars);
+		}
+		if (strategy.isLastConflict()) {
+			search = Search.lastConflict(search);
+		}
+		solver.setSearch(search);
+		if (largeGrid && restarts == null) {
+			restarting = true;
+			restarts = SLRestarts.plug(solver, loopModel == SLLoopModel.PROPAGATOR ? edges : tour,
+					strategy.getRestarts() != SLStrategy.Restarts.GEOMETRIC);
+			if (strategy.getRestarts() == SLStrategy.Restarts.GEOMETRIC) {
+				solver.setGeometricalRestart(RESTART_BASE, 1.5, new FailCounter(model, RESTART_BASE), RESTART_LIMIT);
+			}
+		} else if (!restarting && (strategy.getRestarts() != SLStrategy.Restarts.NONE
+				|| strategy.getHeuristic() == SLStrategy.Heuristic.ACTIVITY)) {
+			restarting = true;
+			if (strategy.getRestarts() == SLStrategy.Restarts.LUBY) {
+				solver.setLubyRestart(RESTART_BASE, new FailCounter(model, RESTART_BASE), RESTART_LIMIT);
+			} else if (strategy.getRestarts() == SLStrategy.Restarts.GEOMETRIC) {
+				solver.setGeometricalRestart(RESTART_BASE, 1.5, new FailCounter(model, RESTART_BASE), RESTART_LIMIT);
+			}
+			if (clueSum == null) {
+				// the nogoods outlive the worlds of findAlternative(int[][], SLDeduce)
+				solver.setNoGoodRecordingFromSolutions(loopModel == SLLoopModel.PROPAGATOR ? edges : tour);
+			}
+		}
+	}
+
+	/**
+	 * fail-first on the tour, used edges first along open paths on the edges
+	 */
+	private AbstractStrategy<IntVar> firstFail(IntVar[] vars) {
+		if (loopModel == SLLoopModel.PROPAGATOR) {
+			return Search.intVarSearch(this::nextEdge, new IntDomainMax(), edges);
+		}
+		return vars == tour ? Search.minDomLBSearch(tour) : Search.minDomUBSearch(vars);
+	}
+
+	/**
+	 * 
+	 * @return an open edge at the end of a path, else the first open edge
+	 */
+	private IntVar nextEdge(IntVar[] vars) {
+		IntVar first = null;
+		for (int v = 0; v < grid.numVertices; v++) {
+			int yes = 0;
+			IntVar open = null;
+			for (int k = 0; k < grid.vertexDegree[v]; k++) {
+				IntVar e = vars[grid.vertexEdge(v, k)];
+				if (!e.isInstantiated()) {
+					open = open == null ? e : open;
+				} else if (e.getValue() == 1) {
+					yes++;
+				}
+			}
+			if (open != null && yes == 1) {
+				return open;
+			}
+			first = first == null ? open : first;
+		}
+		return first;
 	}
 
 	/**
@@ -412,7 +432,8 @@ public class SLSolve {
 	 * @return if solution found
 	 */
 	public boolean solve() {
-		solver.setSearch(Search.minDomLBSearch(tour)); // fail-first
+		found = null;
+		setSearch();
 
 		return solver.solve();
 	}
@@ -422,6 +443,18 @@ public class SLSolve {
 	 * @return solution to problem
 	 */
 	public int[] getSolution() {
+		if (found != null) {
+			return found;
+		}
+		if (loopModel == SLLoopModel.PROPAGATOR) {
+			long[] loop = new long[(grid.numEdges + 63) / 64];
+			for (int e = 0; e < grid.numEdges; e++) {
+				if (edges[e].getValue() == 1) {
+					loop[e >>> 6] |= 1L << e;
+				}
+			}
+			return grid.loopSuccessors(loop);
+		}
 
 		int[] solution = new int[tour.length];
 
@@ -436,6 +469,9 @@ public class SLSolve {
 	 */
 	public void stats() {
 		solver.printShortStatistics();
+		if (restarts != null) {
+			System.out.println("- Large grid: " + restarts);
+		}
 	}
 
 	/**
@@ -443,12 +479,13 @@ public class SLSolve {
 	 * @return number of solutions
 	 */
 	public int findNumSolutions() {
-		solver.setSearch(Search.minDomLBSearch(tour)); // fail-first
+		setSearch();
 		int numSolutions = 0;
 		while (solver.solve()) {
 			numSolutions++;
 		}
-		return numSolutions;
+		// edges and the oriented tour find each loop once, the plain tour once per direction
+		return undirected() ? 2 * numSolutions : numSolutions;
 
 	}
 
@@ -459,18 +496,161 @@ public class SLSolve {
 	 * @return number solutions and tour length
 	 */
 	public int[] genSolutions(int limit) {
-		solver.limitSolution(limit);
-		solver.setSearch(Search.minDomLBSearch(tour)); // fail-first
+		boolean undirected = undirected();
+		solver.limitSolution(undirected ? (limit + 1) / 2 : limit);
+		setSearch();
 		int solNum = 0;
 		int lengthTour = 0;
 		while (solver.solve()) {
 			solNum++;
 			lengthTour = tourLength.getValue();
 		}
+		if (undirected) {
+			solNum = Math.min(2 * solNum, limit);
+		}
 		return new int[] { solNum, lengthTour };
 
 	}
 
+	/**
+	 * Breaks the direction symmetry and searches for two distinct loops at most
+	 * 
+	 * @return bounded number of distinct loops
+	 */
+	public SLUniqueness uniqueness() {
+		breakSymmetry();
+		solver.limitSolution(2);
+		setSearch();
+		int loops = 0;
+		while (solver.solve()) {
+			if (loops++ == 0) {
+				found = getSolution();
+			}
+		}
+		return SLUniqueness.of(loops);
+	}
+
+	/**
+	 * Asks for a loop other than the reference. With the direction fixed by
+	 * breakSymmetry the reference is one tour, so some vertex on it must take
+	 * another successor; on the edge model some edge of it must stay empty.
+	 * 
+	 * @param reference successor array of a loop meeting the clues
+	 * @return successor array of another loop, or null when there is none
+	 */
+	public int[] findAlternative(int[] reference) {
+		exclude(reference);
+		found = null;
+		setSearch();
+		if (!solver.solve()) {
+			return null;
+		}
+		found = getSolution();
+		return found;
+	}
+
+	/**
+	 * Posts the constraints of findAlternative against the reference loop
+	 * 
+	 * @param reference successor array of a loop meeting the clues
+	 */
+	void exclude(int[] reference) {
+		breakSymmetry();
+		int[] oriented = grid.loopSuccessors(grid.loopEdges(reference));
+		List<BoolVar> differs = new ArrayList<>();
+		for (int v = 0; v < oriented.length; v++) {
+			if (oriented[v] != v) {
+				if (loopModel == SLLoopModel.PROPAGATOR) {
+					differs.add(edges[grid.edge(v, oriented[v])]);
+				} else {
+					differs.add(model.arithm(tour[v], "!=", oriented[v]).reify());
+				}
+			}
+		}
+		BoolVar[] none = new BoolVar[0];
+		if (loopModel == SLLoopModel.PROPAGATOR) {
+			model.addClauses(none, differs.toArray(none));
+		} else {
+			model.addClauses(differs.toArray(none), none);
+		}
+	}
+
+	/**
+	 * Looks for a loop meeting only the clues of the puzzle, which are a
+	 * subset of those the model was built with removable. The kept clues and
+	 * the edges the deduction decided are set inside a world popped before
+	 * returning, so the model, and the search heuristic weights, serve the
+	 * next check. Posted constraints such as those of exclude apply to every
+	 * check.
+	 * 
+	 * @param puzzle clues to enforce, -1 for dropped ones
+	 * @param deduce deduction run on the puzzle
+	 * @return successor array of a loop, or null when there is none
+	 */
+	int[] findAlternative(int[][] puzzle, SLDeduce deduce) {
+		IEnvironment environment = model.getEnvironment();
+		environment.worldPush();
+		try {
+			for (int c = 0; c < grid.numCells; c++) {
+				int clue = puzzle[c / (n - 1)][c % (n - 1)];
+				if (clue != -1 && clue != count[c / (n - 1)][c % (n - 1)]) {
+					throw new IllegalArgumentException("clue " + clue + " not in the model at cell " + c);
+				}
+				if (clue != -1) {
+					clueSum[c].instantiateTo(clue, Cause.Null);
+				}
+			}
+			for (int e = 0; e < grid.numEdges; e++) {
+				byte s = deduce.getEdgeState(e);
+				if (s != SLDeduce.UNKNOWN) {
+					setEdge(e, s == SLDeduce.YES);
+				}
+			}
+		} catch (ContradictionException ex) {
+			environment.worldPop();
+			return null;
+		}
+		found = null;
+		SLStrategy tuned = SLStrategy.tuned(loopModel, n, puzzle);
+		if (solver.getSearch() == null || !tuned.equals(strategy)) {
+			strategy = tuned;
+			setSearch(); // kept while the strategy holds, the heuristic learns across checks
+		}
+		try {
+			if (solver.solve()) {
+				found = getSolution();
+			}
+			return found;
+		} finally {
+			// reset drops the stop criteria with the search state
+			solver.reset();
+			solver.addStopCriterion(() -> cancelled);
+			environment.worldPop();
+		}
+	}
+
+	/**
+	 * fixes an edge in the current world
+	 */
+	private void setEdge(int e, boolean on) throws ContradictionException {
+		if (loopModel == SLLoopModel.PROPAGATOR) {
+			edges[e].instantiateTo(on ? 1 : 0, Cause.Null);
+		} else if (on) {
+			used[e].instantiateTo(1, Cause.Null);
+		} else {
+			tour[grid.edgeFrom[e]].removeValue(grid.edgeTo[e], Cause.Null);
+			tour[grid.edgeTo[e]].removeValue(grid.edgeFrom[e], Cause.Null);
+		}
+	}
+
+	/**
+	 * 
+	 * @return if each solution is a loop rather than a directed tour
+	 */
+	private boolean undirected() {
+		return loopModel == SLLoopModel.PROPAGATOR || oriented;
+	}
+
 	/**
 	 * prints the length of the shortest tour
 	 */
@@ -0,0 +1,237 @@
+package com.puzzle.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Search strategy of the Choco models: the variable heuristic, last conflict
+ * reasoning, the restart policy and whether the subCircuit model branches on
+ * successors or on edges.
+ *
+ * Written as heuristic[+last_conflict][+luby|+geometric][/successors|/edges],
+ * as in "dom_wdeg+last_conflict+luby/edges". The tuned strategy for each loop
+ * model, grid size and difficulty is read from strategies.properties on the
+ * classpath, or from a file given to loadTable, so new tuning data needs no
+ * code change.
+ */
+public final class SLStrategy {
+
+	/**
+	 * variable selection
+	 */
+	public enum Heuristic {
+		MIN_DOM, DOM_WDEG, ACTIVITY, CONFLICT_ORDERING
+	}
+
+	/**
+	 * restart policy, cut offs counted in fails
+	 */
+	public enum Restarts {
+		NONE, LUBY, GEOMETRIC
+	}
+
+	/**
+	 * decision variables of the subCircuit model, the edge model always
+	 * branches on edges
+	 */
+	public enum Branching {
+		SUCCESSORS, EDGES
+	}
+
+	/**
+	 * fail-first on successors, the search used before strategies were tuned
+	 */
+	public static final SLStrategy DEFAULT = new SLStrategy(Heuristic.MIN_DOM, false, Restarts.NONE,
+			Branching.SUCCESSORS);
+
+	private static final String TABLE = "/strategies.properties";
+	private static volatile Properties table = loadDefaultTable();
+
+	private final Heuristic heuristic;
+	private final boolean lastConflict;
+	private final Restarts restarts;
+	private final Branching branching;
+
+	public SLStrategy(Heuristic heuristic, boolean lastConflict, Restarts restarts, Branching branching) {
+		this.heuristic = Objects.requireNonNull(heuristic);
+		this.lastConflict = lastConflict;
+		this.restarts = Objects.requireNonNull(restarts);
+		this.branching = Objects.requireNonNull(branching);
+	}
+
+	public Heuristic getHeuristic() {
+		return heuristic;
+	}
+
+	public boolean isLastConflict() {
+		return lastConflict;
+	}
+
+	public Restarts getRestarts() {
+		return restarts;
+	}
+
+	public Branching getBranching() {
+		return branching;
+	}
+
+	/**
+	 * Reads a strategy written as by toString
+	 *
+	 * @param spec as "dom_wdeg+last_conflict+luby/edges"
+	 * @return strategy
+	 */
+	public static SLStrategy parse(String spec) {
+		String text = spec.trim().toUpperCase(Locale.ROOT);
+		Branching branching = Branching.SUCCESSORS;
+		int slash = text.indexOf('/');
+		if (slash != -1) {
+			branching = Branching.valueOf(text.substring(slash + 1).trim());
+			text = text.substring(0, slash);
+		}
+		String[] parts = text.split("\\+");
+		Heuristic heuristic = Heuristic.valueOf(parts[0].trim());
+		boolean lastConflict = false;
+		Restarts restarts = Restarts.NONE;
+		for (int k = 1; k < parts.length; k++) {
+			String part = parts[k].trim();
+			if (part.equals("LAST_CONFLICT")) {
+				lastConflict = true;
+			} else {
+				restarts = Restarts.valueOf(part);
+			}
+		}
+		return new SLStrategy(heuristic, lastConflict, restarts, branching);
+	}
+
+	/**
+	 *
+	 * @return every combination the tuning harness tries
+	 */
+	public static List<SLStrategy> catalog() {
+		List<SLStrategy> catalog = new ArrayList<>();
+		for (Branching branching : Branching.values()) {
+			for (Heuristic heuristic : Heuristic.values()) {
+				for (Restarts restarts : Restarts.values()) {
+					catalog.add(new SLStrategy(heuristic, false, restarts, branching));
+					catalog.add(new SLStrategy(heuristic, true, restarts, branching));
+				}
+			}
+		}
+		return catalog;
+	}
+
+	/**
+	 * Difficulty of a puzzle from its clue density, on the density bands the
+	 * generator reduces to
+	 *
+	 * @param count edge reqs
+	 * @return easy, medium or difficult
+	 */
+	public static String difficulty(int[][] count) {
+		int size = count.length;
+		int clues = 0;
+		for (int[] row : count) {
+			for (int clue : row) {
+				clues += clue >= 0 ? 1 : 0;
+			}
+		}
+		double density = (double) clues / (size * size);
+		double easy = size <= 7 ? 0.45 : size <= 10 ? 0.35 : 0.30;
+		double medium = size <= 7 ? 0.35 : size <= 10 ? 0.25 : 0.20;
+		return density >= easy ? "easy" : density >= medium ? "medium" : "difficult";
+	}
+
+	/**
+	 *
+	 * @return table key, as "subcircuit.10x10.medium"
+	 */
+	public static String key(SLLoopModel loopModel, int n, String difficulty) {
+		return loopModel.name().toLowerCase(Locale.ROOT) + "." + (n - 1) + "x" + (n - 1) + "." + difficulty;
+	}
+
+	/**
+	 * Tuned strategy for a puzzle. Sizes missing from the table take the
+	 * closest smaller tuned size, grids smaller than any tuned size and
+	 * puzzles without an entry keep DEFAULT.
+	 *
+	 * @param loopModel model the strategy drives
+	 * @param n         puzzle dimension
+	 * @param count     edge reqs
+	 * @return strategy
+	 */
+	public static SLStrategy tuned(SLLoopModel loopModel, int n, int[][] count) {
+		Properties current = table;
+		String difficulty = difficulty(count);
+		for (int size = n; size > 1; size--) {
+			String spec = current.getProperty(key(loopModel, size, difficulty));
+			if (spec != null) {
+				return parse(spec);
+			}
+		}
+		return DEFAULT;
+	}
+
+	/**
+	 * Replaces the tuned table, as written by the tuning harness
+	 *
+	 * @param file properties file
+	 */
+	public static void loadTable(Path file) throws IOException {
+		Properties loaded = new Properties();
+		try (Reader in = Files.newBufferedReader(file)) {
+			loaded.load(in);
+		}
+		for (String key : loaded.stringPropertyNames()) {
+			parse(loaded.getProperty(key)); // fail on bad entries before using any
+		}
+		table = loaded;
+	}
+
+	private static Properties loadDefaultTable() {
+		Properties loaded = new Properties();
+		try (InputStream in = SLStrategy.class.getResourceAsStream(TABLE)) {
+			if (in != null) {
+				loaded.load(in);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return loaded;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder spec = new StringBuilder(heuristic.name());
+		if (lastConflict) {
+			spec.append("+LAST_CONFLICT");
+		}
+		if (restarts != Restarts.NONE) {
+			spec.append('+').append(restarts.name());
+		}
+		return spec.append('/').append(branching.name()).toString().toLowerCase(Locale.ROOT);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof SLStrategy)) {
+			return false;
+		}
+		SLStrategy other = (SLStrategy) o;
+		return heuristic == other.heuristic && lastConflict == other.lastConflict && restarts == other.restarts
+				&& branching == other.branching;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(heuristic, lastConflict, restarts, branching);
+	}
+}
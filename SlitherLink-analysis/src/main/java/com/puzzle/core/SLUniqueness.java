@@ -0,0 +1,32 @@
+package com.puzzle.core;
+
+/**
+ * Bounded answer of a uniqueness check, loops counted once whatever their
+ * direction
+ */
+public enum SLUniqueness {
+
+	/**
+	 * no loop meets the clues
+	 */
+	NONE,
+
+	/**
+	 * exactly one loop
+	 */
+	UNIQUE,
+
+	/**
+	 * at least two distinct loops
+	 */
+	MULTIPLE;
+
+	/**
+	 *
+	 * @param loops number of distinct loops found
+	 * @return bounded answer for that many loops
+	 */
+	public static SLUniqueness of(int loops) {
+		return loops == 0 ? NONE : loops == 1 ? UNIQUE : MULTIPLE;
+	}
+}
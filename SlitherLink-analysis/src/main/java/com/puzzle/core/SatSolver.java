@@ -0,0 +1,671 @@
+package com.puzzle.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Small CDCL SAT solver: two watched literals, first UIP clause learning,
+ * VSIDS branching with phase saving and Luby restarts.
+ *
+ * Literals are given DIMACS style, v or -v for variables numbered from 1.
+ * Clauses may be added between calls to solve, learnt clauses are kept up to
+ * a bound proportional to the formula, in clauses and in literals: past it,
+ * restarts drop the half with the most decision levels, so memory stays
+ * linear in the formula size.
+ * Assumptions given to solve hold for that call only, as first decisions.
+ * A model check given to solve may reject complete assignments with clauses
+ * that are added where the search stands, without starting it over.
+ */
+final class SatSolver {
+
+	/**
+	 * Checks the complete assignments found by solve
+	 */
+	interface ModelCheck {
+
+		/**
+		 * @return clauses the model breaks, DIMACS style, or none to accept it
+		 */
+		List<int[]> cuts();
+	}
+
+	private static final int RESTART_BASE = 64; // conflicts per Luby unit
+	private static final int MIN_LEARNTS = 2000; // learnt clauses kept before any deletion
+	private static final int GLUE = 2; // learnt clauses over this many levels may be deleted
+	private static final int MIN_LEARNT_LITS = 1 << 20; // literals of learnt clauses kept before any deletion
+	private static final int LITS_FACTOR = 32; // learnt literals kept per literal of the formula
+
+	private final int numVars;
+	private final List<int[]> clauses = new ArrayList<>(); // literal 2v + sign, v from 0
+	private int[] glue = new int[64]; // decision levels of each learnt clause, 0 for the formula
+	private int learnts; // learnt clauses that may be deleted
+	private int maxLearnts = MIN_LEARNTS;
+	private long lits; // literals of all clauses
+	private long learntLits; // literals of the clauses that may be deleted
+	private long deleted;
+	private final int[][] watches; // clauses watching each literal
+	private final int[] watchSize;
+
+	private final byte[] assign; // 0 unassigned, 1 true, -1 false
+	private final int[] level;
+	private final int[] reason; // implying clause, -1 for decisions
+	private final int[] trail;
+	private int trailSize;
+	private int qhead; // next trail literal to propagate
+	private final int[] trailLim; // trail size at each decision level
+	private int decisionLevel;
+
+	private final double[] activity;
+	private double varInc = 1.0;
+	private final boolean[] phase; // last value of each variable
+	private final int[] heap; // variables by activity
+	private final int[] heapIndex; // -1 when out of the heap
+	private int heapSize;
+
+	private final boolean[] seen;
+	private final int[] levelStamp; // last learnt clause counting each level
+	private int stamp;
+	private final boolean[] model;
+	private boolean unsat;
+	private long decisions;
+	private long conflicts;
+	private volatile boolean interrupted;
+
+	SatSolver(int numVars) {
+		this.numVars = numVars;
+		watches = new int[2 * numVars][4];
+		watchSize = new int[2 * numVars];
+		assign = new byte[numVars];
+		level = new int[numVars];
+		reason = new int[numVars];
+		trail = new int[numVars];
+		trailLim = new int[2 * numVars + 1]; // assumption levels may be empty
+		activity = new double[numVars];
+		phase = new boolean[numVars];
+		heap = new int[numVars];
+		heapIndex = new int[numVars];
+		seen = new boolean[numVars];
+		levelStamp = new int[trailLim.length];
+		model = new boolean[numVars];
+		for (int v = 0; v < numVars; v++) {
+			heapIndex[v] = heapSize;
+			heap[heapSize++] = v;
+		}
+	}
+
+	/**
+	 * Adds a clause, undoing any assignment of a previous solve
+	 *
+	 * @param dimacs literals
+	 * @return false if the formula is now unsatisfiable
+	 */
+	boolean addClause(int... dimacs) {
+		cancelUntil(0);
+		if (unsat) {
+			return false;
+		}
+		int[] lits = new int[dimacs.length];
+		for (int k = 0; k < dimacs.length; k++) {
+			lits[k] = lit(dimacs[k]);
+		}
+		Arrays.sort(lits);
+		int size = 0;
+		for (int k = 0; k < lits.length; k++) {
+			int lit = lits[k];
+			if (value(lit) == 1 || (size > 0 && lits[size - 1] == (lit ^ 1))) {
+				return true; // satisfied or tautology
+			}
+			if (value(lit) == 0 && (size == 0 || lits[size - 1] != lit)) {
+				lits[size++] = lit;
+			}
+		}
+		if (size == 0) {
+			unsat = true;
+			return false;
+		}
+		if (size == 1) {
+			enqueue(lits[0], -1);
+			unsat = propagate() != -1;
+			return !unsat;
+		}
+		attach(Arrays.copyOf(lits, size));
+		return true;
+	}
+
+	/**
+	 *
+	 * @param assumptions literals decided first, in order
+	 * @return if a model satisfying every clause and the assumptions exists
+	 */
+	boolean solve(int... assumptions) {
+		return solve(null, assumptions);
+	}
+
+	/**
+	 *
+	 * @param check       accepts the model or cuts it off, null to accept any
+	 * @param assumptions literals decided first, in order
+	 * @return if a model satisfying every clause and the assumptions, and
+	 *         accepted by the check, exists
+	 */
+	boolean solve(ModelCheck check, int... assumptions) {
+		cancelUntil(0);
+		if (unsat || propagate() != -1) {
+			unsat = true;
+			return false;
+		}
+		int[] assumed = new int[assumptions.length];
+		for (int k = 0; k < assumptions.length; k++) {
+			assumed[k] = lit(assumptions[k]);
+		}
+		int restarts = 0;
+		long budget = luby(restarts) * RESTART_BASE;
+		while (true) {
+			if (interrupted) {
+				cancelUntil(0);
+				return false;
+			}
+			int confl = propagate();
+			if (confl != -1) {
+				conflicts++;
+				budget--;
+				if (decisionLevel == 0) {
+					unsat = true;
+					return false;
+				}
+				learn(confl);
+				varInc *= 1 / 0.95;
+				if (learntLits > maxLearntLits()) {
+					budget = 0; // long learnt clauses, reduce them at a restart now
+				}
+			} else if (budget <= 0) {
+				cancelUntil(0);
+				if (learnts > maxLearnts || learntLits > maxLearntLits()) {
+					reduceLearnts();
+				}
+				budget = luby(++restarts) * RESTART_BASE;
+			} else {
+				int next = -1;
+				while (next == -1 && decisionLevel < assumed.length) {
+					int p = assumed[decisionLevel];
+					if (value(p) == -1) {
+						cancelUntil(0);
+						return false; // the clauses refute the assumptions
+					}
+					if (value(p) == 1) {
+						trailLim[decisionLevel++] = trailSize; // holds already, empty level
+					} else {
+						next = p;
+					}
+				}
+				if (next == -1) {
+					int v = nextVariable();
+					if (v == -1) {
+						for (int u = 0; u < numVars; u++) {
+							model[u] = assign[u] == 1;
+						}
+						List<int[]> cuts = check == null ? null : check.cuts();
+						if (cuts == null || cuts.isEmpty()) {
+							return true;
+						}
+						if (!addCuts(cuts)) {
+							unsat = true;
+							return false;
+						}
+						continue;
+					}
+					next = 2 * v + (phase[v] ? 0 : 1);
+				}
+				decisions++;
+				trailLim[decisionLevel++] = trailSize;
+				enqueue(next, -1);
+			}
+		}
+	}
+
+	/**
+	 * Adds clauses the complete assignment breaks, backjumping only as far as
+	 * the highest level where one of them asserts a literal
+	 *
+	 * @return false if the formula is now unsatisfiable
+	 */
+	private boolean addCuts(List<int[]> cuts) {
+		List<int[]> added = new ArrayList<>();
+		int target = decisionLevel;
+		for (int[] dimacs : cuts) {
+			int[] lits = new int[dimacs.length];
+			for (int k = 0; k < dimacs.length; k++) {
+				lits[k] = lit(dimacs[k]);
+			}
+			lits = order(lits);
+			int top = level[lits[0] >> 1];
+			if (value(lits[0]) != -1) {
+				throw new IllegalArgumentException("cut holds in the model: " + Arrays.toString(dimacs));
+			}
+			if (top == 0) {
+				return false;
+			}
+			int second = lits.length > 1 ? level[lits[1] >> 1] : 0;
+			target = Math.min(target, top == second ? top - 1 : second);
+			added.add(lits);
+		}
+		cancelUntil(target);
+		for (int[] lits : added) {
+			lits = order(lits);
+			if (value(lits[0]) == -1) {
+				// falsified again by a literal asserted by an earlier cut
+				if (decisionLevel == 0 || lits.length == 1) {
+					return false;
+				}
+				conflicts++;
+				learn(attach(lits));
+			} else if (lits.length == 1) {
+				if (value(lits[0]) == 0) {
+					enqueue(lits[0], -1);
+				}
+			} else {
+				int ci = attach(lits);
+				if (value(lits[0]) == 0 && value(lits[1]) == -1) {
+					enqueue(lits[0], ci);
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return literals of a clause with the ones not false first, then the
+	 *         false ones from the highest level down
+	 */
+	private int[] order(int[] clause) {
+		Integer[] lits = new Integer[clause.length];
+		for (int k = 0; k < clause.length; k++) {
+			lits[k] = clause[k];
+		}
+		Arrays.sort(lits, (a, b) -> Integer.compare(rank(b), rank(a)));
+		int[] ordered = new int[clause.length];
+		for (int k = 0; k < clause.length; k++) {
+			ordered[k] = lits[k];
+		}
+		return ordered;
+	}
+
+	private int rank(int lit) {
+		return value(lit) != -1 ? Integer.MAX_VALUE : level[lit >> 1];
+	}
+
+	/**
+	 * Makes a running or later solve return false without a model, for a
+	 * caller that gave up on the answer
+	 */
+	void interrupt() {
+		interrupted = true;
+	}
+
+	/**
+	 *
+	 * @return value of a variable, numbered from 1, in the last model
+	 */
+	boolean modelValue(int var) {
+		return model[var - 1];
+	}
+
+	long getDecisions() {
+		return decisions;
+	}
+
+	long getConflicts() {
+		return conflicts;
+	}
+
+	/**
+	 *
+	 * @return learnt clauses deleted so far
+	 */
+	long getDeleted() {
+		return deleted;
+	}
+
+	/**
+	 *
+	 * @return clauses held, of the formula and learnt
+	 */
+	int getClauses() {
+		return clauses.size();
+	}
+
+	/**
+	 * @return literal 2v + sign of a DIMACS literal
+	 */
+	private static int lit(int dimacs) {
+		return dimacs > 0 ? 2 * (dimacs - 1) : 2 * (-dimacs - 1) + 1;
+	}
+
+	private int value(int lit) {
+		byte a = assign[lit >> 1];
+		return (lit & 1) == 0 ? a : -a;
+	}
+
+	private void enqueue(int lit, int from) {
+		int v = lit >> 1;
+		assign[v] = (byte) ((lit & 1) == 0 ? 1 : -1);
+		level[v] = decisionLevel;
+		reason[v] = from;
+		trail[trailSize++] = lit;
+	}
+
+	/**
+	 * Sets the decision levels of an added clause, which may be deleted over
+	 * GLUE of them
+	 */
+	private void deletable(int ci, int levels) {
+		glue[ci] = levels;
+		if (levels > GLUE) {
+			learnts++;
+			learntLits += clauses.get(ci).length;
+		}
+	}
+
+	/**
+	 *
+	 * @return bound of the literals in deletable clauses
+	 */
+	private long maxLearntLits() {
+		return Math.max(MIN_LEARNT_LITS, LITS_FACTOR * (lits - learntLits));
+	}
+
+	private int attach(int[] lits) {
+		int ci = clauses.size();
+		clauses.add(lits);
+		this.lits += lits.length;
+		if (ci == glue.length) {
+			glue = Arrays.copyOf(glue, 2 * ci);
+		}
+		glue[ci] = 0;
+		watch(lits[0], ci);
+		watch(lits[1], ci);
+		return ci;
+	}
+
+	private void watch(int lit, int ci) {
+		if (watchSize[lit] == watches[lit].length) {
+			watches[lit] = Arrays.copyOf(watches[lit], 2 * watchSize[lit]);
+		}
+		watches[lit][watchSize[lit]++] = ci;
+	}
+
+	/**
+	 * unit propagation over the watched literals
+	 *
+	 * @return conflicting clause or -1
+	 */
+	private int propagate() {
+		while (qhead < trailSize) {
+			int falseLit = trail[qhead++] ^ 1;
+			int[] ws = watches[falseLit];
+			int size = watchSize[falseLit];
+			int i = 0;
+			int j = 0;
+			while (i < size) {
+				int ci = ws[i++];
+				int[] c = clauses.get(ci);
+				if (c[0] == falseLit) {
+					c[0] = c[1];
+					c[1] = falseLit;
+				}
+				if (value(c[0]) == 1) {
+					ws[j++] = ci;
+					continue;
+				}
+				boolean moved = false;
+				for (int k = 2; k < c.length; k++) {
+					if (value(c[k]) != -1) {
+						c[1] = c[k];
+						c[k] = falseLit;
+						watch(c[1], ci);
+						moved = true;
+						break;
+					}
+				}
+				if (moved) {
+					continue;
+				}
+				ws[j++] = ci;
+				if (value(c[0]) == -1) {
+					while (i < size) {
+						ws[j++] = ws[i++];
+					}
+					watchSize[falseLit] = j;
+					qhead = trailSize;
+					return ci;
+				}
+				enqueue(c[0], ci);
+			}
+			watchSize[falseLit] = j;
+		}
+		return -1;
+	}
+
+	/**
+	 * learns the first UIP clause of a conflict and backjumps
+	 */
+	private void learn(int confl) {
+		List<Integer> lower = new ArrayList<>();
+		int pathCount = 0;
+		int p = -1;
+		int index = trailSize - 1;
+		do {
+			int[] c = clauses.get(confl);
+			for (int k = p == -1 ? 0 : 1; k < c.length; k++) {
+				int v = c[k] >> 1;
+				if (!seen[v] && level[v] > 0) {
+					seen[v] = true;
+					bump(v);
+					if (level[v] >= decisionLevel) {
+						pathCount++;
+					} else {
+						lower.add(c[k]);
+					}
+				}
+			}
+			while (!seen[trail[index] >> 1]) {
+				index--;
+			}
+			p = trail[index--];
+			confl = reason[p >> 1];
+			seen[p >> 1] = false;
+			pathCount--;
+		} while (pathCount > 0);
+
+		int[] learnt = new int[lower.size() + 1];
+		learnt[0] = p ^ 1;
+		int backLevel = 0;
+		for (int k = 0; k < lower.size(); k++) {
+			int lit = lower.get(k);
+			learnt[k + 1] = lit;
+			seen[lit >> 1] = false;
+			if (level[lit >> 1] > backLevel) {
+				backLevel = level[lit >> 1];
+				learnt[k + 1] = learnt[1];
+				learnt[1] = lit;
+			}
+		}
+		cancelUntil(backLevel);
+		if (learnt.length == 1) {
+			enqueue(learnt[0], -1);
+		} else {
+			int ci = attach(learnt);
+			deletable(ci, levels(learnt));
+			enqueue(learnt[0], ci);
+		}
+	}
+
+	/**
+	 *
+	 * @return distinct decision levels of the literals
+	 */
+	private int levels(int[] lits) {
+		stamp++;
+		int levels = 0;
+		for (int lit : lits) {
+			int lv = level[lit >> 1];
+			if (levelStamp[lv] != stamp) {
+				levelStamp[lv] = stamp;
+				levels++;
+			}
+		}
+		return levels;
+	}
+
+	/**
+	 * Deletes the half of the learnt clauses over the most decision levels,
+	 * keeping those over GLUE levels at most, and raises the bound by a tenth
+	 * up to twice the formula. Called at level 0, where no kept assignment has a
+	 * learnt reason that conflict analysis reads.
+	 */
+	private void reduceLearnts() {
+		List<Integer> candidates = new ArrayList<>();
+		for (int ci = 0; ci < clauses.size(); ci++) {
+			if (glue[ci] > GLUE) {
+				candidates.add(ci);
+			}
+		}
+		candidates.sort((a, b) -> glue[b] != glue[a] ? Integer.compare(glue[b], glue[a])
+				: Integer.compare(clauses.get(b).length, clauses.get(a).length));
+		boolean[] drop = new boolean[clauses.size()];
+		int target = candidates.size() / 2;
+		for (int k = 0; k < target; k++) {
+			int ci = candidates.get(k);
+			drop[ci] = true;
+			lits -= clauses.get(ci).length;
+			learntLits -= clauses.get(ci).length;
+		}
+		int kept = 0;
+		for (int ci = 0; ci < clauses.size(); ci++) {
+			if (!drop[ci]) {
+				clauses.set(kept, clauses.get(ci));
+				glue[kept++] = glue[ci];
+			}
+		}
+		clauses.subList(kept, clauses.size()).clear();
+		Arrays.fill(watchSize, 0);
+		for (int ci = 0; ci < kept; ci++) {
+			int[] c = clauses.get(ci);
+			watch(c[0], ci);
+			watch(c[1], ci);
+		}
+		for (int k = 0; k < trailSize; k++) {
+			reason[trail[k] >> 1] = -1;
+		}
+		learnts -= target;
+		deleted += target;
+		maxLearnts = (int) Math.min(maxLearnts * 1.1, Math.max(MIN_LEARNTS, 2L * (kept - learnts)));
+	}
+
+	private void cancelUntil(int target) {
+		if (decisionLevel <= target) {
+			return;
+		}
+		for (int k = trailSize - 1; k >= trailLim[target]; k--) {
+			int v = trail[k] >> 1;
+			phase[v] = assign[v] == 1;
+			assign[v] = 0;
+			if (heapIndex[v] == -1) {
+				heapInsert(v);
+			}
+		}
+		trailSize = trailLim[target];
+		qhead = trailSize;
+		decisionLevel = target;
+	}
+
+	private int nextVariable() {
+		while (heapSize > 0) {
+			int v = heapRemoveMax();
+			if (assign[v] == 0) {
+				return v;
+			}
+		}
+		return -1;
+	}
+
+	private void bump(int v) {
+		activity[v] += varInc;
+		if (activity[v] > 1e100) {
+			for (int u = 0; u < numVars; u++) {
+				activity[u] *= 1e-100;
+			}
+			varInc *= 1e-100;
+		}
+		if (heapIndex[v] != -1) {
+			siftUp(heapIndex[v]);
+		}
+	}
+
+	private void heapInsert(int v) {
+		heapIndex[v] = heapSize;
+		heap[heapSize++] = v;
+		siftUp(heapIndex[v]);
+	}
+
+	private int heapRemoveMax() {
+		int top = heap[0];
+		heapIndex[top] = -1;
+		int last = heap[--heapSize];
+		if (heapSize > 0) {
+			heap[0] = last;
+			heapIndex[last] = 0;
+			siftDown(0);
+		}
+		return top;
+	}
+
+	private void siftUp(int i) {
+		int v = heap[i];
+		while (i > 0 && activity[heap[(i - 1) / 2]] < activity[v]) {
+			heap[i] = heap[(i - 1) / 2];
+			heapIndex[heap[i]] = i;
+			i = (i - 1) / 2;
+		}
+		heap[i] = v;
+		heapIndex[v] = i;
+	}
+
+	private void siftDown(int i) {
+		int v = heap[i];
+		while (2 * i + 1 < heapSize) {
+			int child = 2 * i + 1;
+			if (child + 1 < heapSize && activity[heap[child + 1]] > activity[heap[child]]) {
+				child++;
+			}
+			if (activity[heap[child]] <= activity[v]) {
+				break;
+			}
+			heap[i] = heap[child];
+			heapIndex[heap[i]] = i;
+			i = child;
+		}
+		heap[i] = v;
+		heapIndex[v] = i;
+	}
+
+	/**
+	 * @return i-th term of the Luby sequence 1 1 2 1 1 2 4 ...
+	 */
+	private static long luby(int i) {
+		long size = 1;
+		int seq = 0;
+		while (size < i + 1) {
+			seq++;
+			size = 2 * size + 1;
+		}
+		long x = i;
+		while (size - 1 != x) {
+			size = (size - 1) >> 1;
+			seq--;
+			x = x % size;
+		}
+		return 1L << seq;
+	}
+}
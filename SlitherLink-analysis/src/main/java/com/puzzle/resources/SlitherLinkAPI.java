@@ -1,5 +1,10 @@
 package com.puzzle.resources;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Scanner;
 
 import javax.ws.rs.Consumes;
@@ -8,32 +13,161 @@ import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.json.simple.JSONObject;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.puzzle.core.SLEngine;
+import com.puzzle.core.SLEngineType;
 import com.puzzle.core.SLGen;
-import com.puzzle.core.SLSolve;
 
 @Path("/sl")
 @Produces(MediaType.APPLICATION_JSON) 
 @Consumes(MediaType.APPLICATION_JSON) 
 public class SlitherLinkAPI {
 
+	static final String NDJSON = "application/x-ndjson";
+
 	ObjectWriter oWriter = new ObjectMapper().writerWithDefaultPrettyPrinter();
+	private final SLEngineType engine;
+
+	public SlitherLinkAPI() {
+		this(SLEngineType.CHOCO);
+	}
+
+	public SlitherLinkAPI(SLEngineType engine) {
+		this.engine = engine;
+	}
+
+	/**
+	 * Engine named by a request, the configured one when none is named
+	 * 
+	 * @param name engine type, as PORTFOLIO
+	 * @return engine, null when the name is unknown
+	 */
+	private SLEngineType engineFor(String name) {
+		if (name == null || name.trim().isEmpty()) {
+			return engine;
+		}
+		try {
+			return SLEngineType.valueOf(name.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private String unknownEngine(String name) {
+		System.err.println("ERROR: unknown engine " + name);
+		JSONObject error = new JSONObject();
+		error.put("error", "engine must be one of " + Arrays.toString(SLEngineType.values()));
+		return error.toJSONString();
+	}
+
 /**
  * Receive dimension and difficulty and return instance data
  * @param puzzledim
  * @param diff
+ * @param engineName engine for this request, the configured one when absent
+ * @param reduceName engine for the uniqueness checks of clue reduction, engineName when absent
  * @return
  */
 	@Path("/gen")
 	@GET
-	public String genPuzzle(@QueryParam("puzzledim") int puzzledim, @QueryParam("diff") String diff) {
+	public String genPuzzle(@QueryParam("puzzledim") int puzzledim, @QueryParam("diff") String diff,
+			@QueryParam("engine") String engineName, @QueryParam("reduceEngine") String reduceName) {
+		SLEngineType engine = engineFor(engineName);
+		if (engine == null) {
+			return unknownEngine(engineName);
+		}
+		SLEngineType reduceEngine = reduceName == null ? engine : engineFor(reduceName);
+		if (reduceEngine == null) {
+			return unknownEngine(reduceName);
+		}
 		
-		// Parameter validation
+		String error = checkGen(puzzledim, diff);
+		if (error != null) {
+			return error;
+		}
+
+		SLGen slGen = new SLGen(puzzledim, diff, false);
+		slGen.setEngine(reduceEngine);
+		slGen.rules();
+		JSONObject data = puzzle(engine, puzzledim, slGen);
+		return data == null ? "Failure" : data.toJSONString();
+
+	}
+
+	/**
+	 * Generates as /gen, streaming the progress as one JSON line each while the
+	 * puzzle is generated and the puzzle of /gen as the last line. Large grids
+	 * take minutes, the lines let clients show the phase and keep the
+	 * connection alive.
+	 * 
+	 * @param puzzledim
+	 * @param diff
+	 * @param engineName engine for this request, the configured one when absent
+	 * @param reduceName engine for the uniqueness checks of clue reduction, engineName when absent
+	 * @return newline-delimited JSON
+	 */
+	@Path("/gen/stream")
+	@GET
+	@Produces(NDJSON)
+	public Response streamPuzzle(@QueryParam("puzzledim") int puzzledim, @QueryParam("diff") String diff,
+			@QueryParam("engine") String engineName, @QueryParam("reduceEngine") String reduceName) {
+		SLEngineType engine = engineFor(engineName);
+		if (engine == null) {
+			return badRequest(unknownEngine(engineName));
+		}
+		SLEngineType reduceEngine = reduceName == null ? engine : engineFor(reduceName);
+		if (reduceEngine == null) {
+			return badRequest(unknownEngine(reduceName));
+		}
+		String error = checkGen(puzzledim, diff);
+		if (error != null) {
+			return badRequest(error);
+		}
+		StreamingOutput stream = output -> {
+			Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+			SLGen slGen = new SLGen(puzzledim, diff, false);
+			slGen.setEngine(reduceEngine);
+			slGen.rules();
+			slGen.setProgress((phase, done, total, clues) -> {
+				JSONObject line = new JSONObject();
+				line.put("phase", phase);
+				line.put("done", done);
+				line.put("total", total);
+				line.put("clues", clues);
+				try {
+					writer.write(line.toJSONString() + "\n");
+					writer.flush();
+				} catch (IOException e) {
+					// the client went away, the generation still completes
+				}
+			});
+			JSONObject data = puzzle(engine, puzzledim, slGen);
+			if (data == null) {
+				data = new JSONObject();
+				data.put("error", "Failure");
+			}
+			writer.write(data.toJSONString() + "\n");
+			writer.flush();
+		};
+		return Response.ok(stream, NDJSON).build();
+	}
+
+	private static Response badRequest(String error) {
+		return Response.status(Response.Status.BAD_REQUEST).type(MediaType.APPLICATION_JSON).entity(error).build();
+	}
+
+	/**
+	 * 
+	 * @return error of the /gen parameters, null when they are valid
+	 */
+	private static String checkGen(int puzzledim, String diff) {
 		if (diff == null || diff.trim().isEmpty()) {
 			System.err.println("ERROR: diff parameter is required but was null or empty");
 			JSONObject error = new JSONObject();
@@ -47,58 +181,65 @@ public class SlitherLinkAPI {
 			error.put("error", "puzzledim parameter must be positive");
 			return error.toJSONString();
 		}
+		return null;
+	}
 
-		String pairsString = "";
-		String countString = "";
-		SLGen slGen = new SLGen(puzzledim, diff, false);
-		slGen.rules();
+	/**
+	 * Generates a puzzle and solves it again for its loop
+	 * 
+	 * @param engine solver of the generated puzzle, a large grid uses its
+	 *               {@link SLEngineType#forGrid} engine
+	 * @param puzzledim
+	 * @param slGen  generator set up for the request
+	 * @return count, pairs and seed of the puzzle, null when it does not solve
+	 */
+	private JSONObject puzzle(SLEngineType engine, int puzzledim, SLGen slGen) {
 		int[][] countArr = slGen.generate();
 		long genSeed = slGen.getSeed();
 		String genDiff = slGen.getDiff();
 
 		String displaySeed = puzzledim + "-" + genDiff.charAt(0) + "-" + genSeed;
-		SLSolve sl = new SLSolve(puzzledim, countArr, false);
+		SLEngine sl = engine.forGrid(puzzledim).create(puzzledim, countArr);
 		sl.rules();
-		if (sl.solve()) {
-			int[][] pairs = new int[sl.getSolution().length][2];
-
-			for (int i = 0; i < sl.getSolution().length; i++) {
-				pairs[i][0] = i;
-				System.out.print(pairs[i][0] + " ");
-				pairs[i][1] = sl.getSolution()[i];
-				System.out.print(pairs[i][1] + " ");
-				System.out.println();
-			}
-
-			try {
-				pairsString = oWriter.writeValueAsString(pairs);
-				countString = oWriter.writeValueAsString(countArr);
-
-			} catch (JsonProcessingException e) {
-				e.printStackTrace();
-			}
-
-			JSONObject data = new JSONObject();
-			data.put("count", countString);
-			data.put("pairs", pairsString);
-			data.put("seed", displaySeed);
-			return data.toJSONString();
+		if (!sl.solve()) {
+			return null;
 		}
-		return "Failure";
+		JSONObject data = new JSONObject();
+		try {
+			data.put("count", oWriter.writeValueAsString(countArr));
+			data.put("pairs", oWriter.writeValueAsString(pairs(sl.getSolution())));
+		} catch (JsonProcessingException e) {
+			e.printStackTrace();
+		}
+		data.put("seed", displaySeed);
+		return data;
+	}
 
+	private static int[][] pairs(int[] solution) {
+		int[][] pairs = new int[solution.length][2];
+		for (int i = 0; i < solution.length; i++) {
+			pairs[i][0] = i;
+			pairs[i][1] = solution[i];
+		}
+		return pairs;
 	}
 	/**
 	 * Recieve puzzle dimension difficulty and seed as input and return specific instance
 	 * @param puzzledim
 	 * @param diff
 	 * @param seed
+	 * @param engineName engine for this request, the configured one when absent
 	 * @return
 	 */
 
 	@Path("/load")
 	@GET
 	public String loadSeedPuzzle(@QueryParam("inputPuzzleDim") int puzzledim, @QueryParam("inputDiff") String diff,
-			@QueryParam("seed") String seed) {
+			@QueryParam("seed") String seed, @QueryParam("engine") String engineName) {
+		SLEngineType engine = engineFor(engineName);
+		if (engine == null) {
+			return unknownEngine(engineName);
+		}
 		String pairsString = "";
 		String countString = "";
 		String difficulty = "";
@@ -115,12 +256,13 @@ public class SlitherLinkAPI {
 		System.out.println("difficulty is" + difficulty);
 		long inputSeed = Long.parseLong(seed);
 		SLGen slGen = new SLGen(puzzledim, difficulty, inputSeed, false);
+		slGen.setEngine(engine);
 		slGen.rules();
 		int[][] countArr = slGen.generate();
 		long genSeed = slGen.getSeed();
 
 		String displaySeed = puzzledim + "-" + diff + "-" + genSeed;
-		SLSolve sl = new SLSolve(puzzledim, countArr, false);
+		SLEngine sl = engine.forGrid(puzzledim).create(puzzledim, countArr);
 		sl.rules();
 		if (sl.solve()) {
 			int[][] pairs = new int[sl.getSolution().length][2];
@@ -156,12 +298,17 @@ public class SlitherLinkAPI {
 	 * @param puzzledim
 	 * @param countvals
 	 * @param stats
+	 * @param engineName engine for this request, the configured one when absent
 	 * @return solution
 	 */
 	@Path("/solve")
 	@GET
 	public String solvePuzzle(@QueryParam("puzzledim") int puzzledim, @QueryParam("countvals") String countvals,
-			@QueryParam("stats") boolean stats) {
+			@QueryParam("stats") boolean stats, @QueryParam("engine") String engineName) {
+		SLEngineType engine = engineFor(engineName);
+		if (engine == null) {
+			return unknownEngine(engineName);
+		}
 		String pairsString = "";
 		int[][] countArr = new int[puzzledim - 1][puzzledim - 1];
 		Scanner s = new Scanner(countvals);
@@ -177,7 +324,7 @@ public class SlitherLinkAPI {
 
 		}
 
-		SLSolve sl = new SLSolve(puzzledim, countArr, false);
+		SLEngine sl = engine.forGrid(puzzledim).create(puzzledim, countArr);
 		sl.rules();
 		if (sl.solve()) {
 			int[][] pairs = new int[sl.getSolution().length][2];
@@ -197,7 +344,7 @@ public class SlitherLinkAPI {
 				e.printStackTrace();
 			}
 			if (stats) {
-				SLSolve sl2 = new SLSolve(puzzledim, countArr, false);
+				SLEngine sl2 = engine.forGrid(puzzledim).create(puzzledim, countArr);
 				sl2.rules();
 				System.out.println("Stats ARE wanted");
 				JSONObject data = new JSONObject();
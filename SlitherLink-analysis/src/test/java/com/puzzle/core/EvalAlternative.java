@@ -0,0 +1,71 @@
+package com.puzzle.core;
+
+import java.util.List;
+
+/**
+ * Compares the bounded uniqueness check against the check that excludes the
+ * known loop, on the stored puzzles with the pattern tables posted
+ */
+public class EvalAlternative {
+
+	private static final String LIMIT = "60 s"; // per solve
+
+	public static void main(String[] args) {
+		compare("src/test/java/com/puzzle/resources/dim8", SLLoopModel.SUBCIRCUIT);
+		compare("src/test/java/com/puzzle/resources/dim11", SLLoopModel.SUBCIRCUIT);
+		compare("src/test/java/com/puzzle/resources/dim11", SLLoopModel.PROPAGATOR);
+		compare("src/test/java/com/puzzle/resources/dim16", SLLoopModel.PROPAGATOR);
+	}
+
+	public static void compare(String fname, SLLoopModel loopModel) {
+		long uniqueNodes = 0;
+		long excludeNodes = 0;
+		double uniqueTime = 0.0;
+		double excludeTime = 0.0;
+		int mismatches = 0;
+		int stopped = 0;
+		List<int[][]> puzzles = EvalEngines.readPuzzles(fname);
+		for (int[][] count : puzzles) {
+			int n = count.length + 1;
+			SLSatSolve reference = new SLSatSolve(n, count);
+			reference.solve();
+			int[] loop = reference.getSolution();
+
+			long start = System.nanoTime();
+			SLSolve unique = new SLSolve(n, count, false, loopModel);
+			unique.rules();
+			unique.limitTime(LIMIT);
+			SLUniqueness answer = unique.uniqueness();
+			double uniqueSeconds = (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			SLSolve exclude = new SLSolve(n, count, false, loopModel);
+			exclude.rules();
+			exclude.limitTime(LIMIT);
+			int[] other = exclude.findAlternative(loop);
+			double excludeSeconds = (System.nanoTime() - start) / 1e9;
+
+			uniqueNodes += unique.getNodeCount();
+			excludeNodes += exclude.getNodeCount();
+			uniqueTime += uniqueSeconds;
+			excludeTime += excludeSeconds;
+			String result;
+			if (unique.isStopped() || exclude.isStopped()) {
+				stopped++;
+				result = "limit reached";
+			} else if ((answer == SLUniqueness.UNIQUE) == (other == null)) {
+				result = answer.toString();
+			} else {
+				mismatches++;
+				result = "DIFFERENT";
+			}
+			System.out.println(String.format("%s n=%d %s uniqueness %d nodes %.3fs, findAlternative %d nodes %.3fs %s",
+					fname, n, loopModel, unique.getNodeCount(), uniqueSeconds, exclude.getNodeCount(), excludeSeconds,
+					result));
+		}
+		System.out.println(String.format(
+				"%s %s: %d puzzles, uniqueness %d nodes %.3fs, findAlternative %d nodes %.3fs, %d at limit, %d mismatches",
+				fname, loopModel, puzzles.size(), uniqueNodes, uniqueTime, excludeNodes, excludeTime, stopped,
+				mismatches));
+	}
+}
@@ -0,0 +1,112 @@
+package com.puzzle.core;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the deduction pre-pass on the stored puzzles: edges it decides,
+ * search with and without it, and how many uniqueness checks of a clue
+ * reduction it settles without a solver
+ */
+public class EvalDeduce {
+
+	private static final String LIMIT = "60 s"; // per solve
+
+	public static void main(String[] args) {
+		for (String fname : new String[] { "src/test/java/com/puzzle/resources/dim8",
+				"src/test/java/com/puzzle/resources/dim11", "src/test/java/com/puzzle/resources/dim16" }) {
+			compare(fname, SLLoopModel.SUBCIRCUIT);
+			compare(fname, SLLoopModel.PROPAGATOR);
+			reduction(fname);
+		}
+	}
+
+	public static void compare(String fname, SLLoopModel loopModel) {
+		long plainNodes = 0;
+		long preNodes = 0;
+		double plainTime = 0.0;
+		double preTime = 0.0;
+		int plainStopped = 0;
+		int preStopped = 0;
+		double decided = 0.0;
+		List<int[][]> puzzles = EvalEngines.readPuzzles(fname);
+		for (int[][] count : puzzles) {
+			int n = count.length + 1;
+			SLDeduce deduce = new SLDeduce(n, count);
+			deduce.deduce();
+			decided += 1.0 - deduce.getUnknownCount() / (double) SLGrid.of(n).getNumEdges();
+
+			long start = System.nanoTime();
+			SLSolve plain = new SLSolve(n, count, false, loopModel);
+			plain.rules();
+			plain.limitTime(LIMIT);
+			plain.solve();
+			plainTime += (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			SLSolve pre = new SLSolve(n, count, false, loopModel);
+			pre.rules();
+			pre.presolve();
+			pre.limitTime(LIMIT);
+			pre.solve();
+			preTime += (System.nanoTime() - start) / 1e9;
+
+			plainNodes += plain.getNodeCount();
+			preNodes += pre.getNodeCount();
+			plainStopped += plain.isStopped() ? 1 : 0;
+			preStopped += pre.isStopped() ? 1 : 0;
+		}
+		System.out.println(String.format(
+				"%s %s: %d puzzles, %.0f%% edges deduced, search %d nodes %.3fs (%d at limit), presolved %d nodes %.3fs (%d at limit)",
+				fname, loopModel, puzzles.size(), 100 * decided / puzzles.size(), plainNodes, plainTime, plainStopped,
+				preNodes, preTime, preStopped));
+	}
+
+	/**
+	 * removes clues at random from each full count, as clue reduction does,
+	 * and counts the checks the rules settle on their own
+	 */
+	public static void reduction(String fname) {
+		int checks = 0;
+		int settled = 0;
+		Random rand = new Random(1);
+		for (int[][] count : EvalEngines.readPuzzles(fname)) {
+			int n = count.length + 1;
+			SLEngine sl = SLEngineType.BITBOARD.create(n, count);
+			sl.solve();
+			int[][] full = fullCount(n, sl.getSolution());
+			for (int k = 0; k < (n - 1) * (n - 1); k++) {
+				int i = rand.nextInt(n - 1);
+				int j = rand.nextInt(n - 1);
+				int temp = full[i][j];
+				full[i][j] = -1;
+				checks++;
+				SLDeduce deduce = new SLDeduce(n, full);
+				if (!deduce.deduce() || deduce.isSolved()) {
+					settled++;
+				} else if (SLEngineType.BITBOARD.create(n, full).genSolutions(3)[0] != 2) {
+					full[i][j] = temp;
+				}
+			}
+		}
+		System.out.println(String.format("%s reduction: %d of %d uniqueness checks settled by deduction", fname,
+				settled, checks));
+	}
+
+	private static int[][] fullCount(int n, int[] successor) {
+		SLGrid grid = SLGrid.of(n);
+		int[][] full = new int[n - 1][n - 1];
+		for (int v = 0; v < successor.length; v++) {
+			if (successor[v] != v) {
+				int e = grid.edge(v, successor[v]);
+				for (int k = 0; k < 2; k++) {
+					int c = grid.edgeCells[2 * e + k];
+					if (c != -1) {
+						full[c / (n - 1)][c % (n - 1)]++;
+					}
+				}
+			}
+		}
+		return full;
+	}
+}
@@ -0,0 +1,118 @@
+package com.puzzle.core;
+
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Scanner;
+import java.util.Set;
+
+/**
+ * Benchmarks the Choco solver against the native bitboard solver on the stored
+ * puzzles and checks that both give the same answers
+ */
+public class EvalEngines {
+
+	public static void main(String[] args) {
+		compare("src/test/java/com/puzzle/resources/dim8");
+		compare("src/test/java/com/puzzle/resources/dim11");
+		compare("src/test/java/com/puzzle/resources/dim21");
+	}
+
+	public static void compare(String fname) {
+		double chocoTime = 0.0;
+		double bitTime = 0.0;
+		int mismatches = 0;
+		List<int[][]> puzzles = readPuzzles(fname);
+		for (int[][] count : puzzles) {
+			int n = count.length + 1;
+
+			long start = System.nanoTime();
+			SLEngine choco = SLEngineType.CHOCO.create(n, count);
+			boolean chocoSolved = choco.solve();
+			Set<Integer> chocoLoop = chocoSolved ? loopEdges(n, choco.getSolution()) : null;
+			int[] chocoSolutions = SLEngineType.CHOCO.create(n, count).genSolutions(3);
+			double chocoSeconds = (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			SLEngine bit = SLEngineType.BITBOARD.create(n, count);
+			boolean bitSolved = bit.solve();
+			Set<Integer> bitLoop = bitSolved ? loopEdges(n, bit.getSolution()) : null;
+			int[] bitSolutions = SLEngineType.BITBOARD.create(n, count).genSolutions(3);
+			double bitSeconds = (System.nanoTime() - start) / 1e9;
+
+			chocoTime += chocoSeconds;
+			bitTime += bitSeconds;
+			boolean same = chocoSolved == bitSolved && (!chocoSolved || chocoLoop.equals(bitLoop))
+					&& chocoSolutions[0] == bitSolutions[0];
+			if (!same) {
+				mismatches++;
+			}
+			System.out.println(String.format("%s n=%d choco %.3fs (%d nodes) bitboard %.3fs (%d nodes) %s", fname, n,
+					chocoSeconds, choco.getNodeCount(), bitSeconds, bit.getNodeCount(), same ? "same" : "DIFFERENT"));
+		}
+		System.out.println(String.format("%s: %d puzzles, choco %.3fs, bitboard %.3fs, %d mismatches", fname,
+				puzzles.size(), chocoTime, bitTime, mismatches));
+	}
+
+	/**
+	 * undirected edges of a successor array, as from * n * n + to with from < to
+	 */
+	static Set<Integer> loopEdges(int n, int[] successor) {
+		Set<Integer> edges = new HashSet<>();
+		for (int i = 0; i < successor.length; i++) {
+			if (successor[i] != i) {
+				edges.add(Math.min(i, successor[i]) * n * n + Math.max(i, successor[i]));
+			}
+		}
+		return edges;
+	}
+
+	/**
+	 * reads a dimension line followed by one line per row, skipping puzzles
+	 * that do not have n - 1 rows of n - 1 clues
+	 */
+	static List<int[][]> readPuzzles(String fname) {
+		List<int[][]> puzzles = new ArrayList<>();
+		List<String[]> lines = new ArrayList<>();
+		try (Scanner sc = new Scanner(new FileReader(fname))) {
+			while (sc.hasNextLine()) {
+				String line = sc.nextLine().trim();
+				if (!line.isEmpty()) {
+					lines.add(line.split("\\s+"));
+				}
+			}
+		} catch (FileNotFoundException e) {
+			e.printStackTrace();
+		}
+		int read = 0;
+		for (int k = 0; k < lines.size(); k++) {
+			if (lines.get(k).length != 1) {
+				continue;
+			}
+			read++;
+			int n = Integer.parseInt(lines.get(k)[0]);
+			List<String[]> rows = new ArrayList<>();
+			while (k + 1 < lines.size() && lines.get(k + 1).length > 1) {
+				rows.add(lines.get(++k));
+			}
+			boolean valid = rows.size() == n - 1;
+			for (String[] row : rows) {
+				valid &= row.length == n - 1;
+			}
+			if (!valid) {
+				System.out.println(fname + ": skipping malformed puzzle " + read);
+				continue;
+			}
+			int[][] count = new int[n - 1][n - 1];
+			for (int i = 0; i < n - 1; i++) {
+				for (int j = 0; j < n - 1; j++) {
+					count[i][j] = Integer.parseInt(rows.get(i)[j]);
+				}
+			}
+			puzzles.add(count);
+		}
+		return puzzles;
+	}
+}
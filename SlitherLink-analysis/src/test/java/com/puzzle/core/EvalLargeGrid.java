@@ -0,0 +1,72 @@
+package com.puzzle.core;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the uniqueness check of the Choco models with and without the
+ * large-grid mode over the stored large puzzles: rate of checks stopped at the
+ * time limit and median time, stopped checks counting as the limit.
+ *
+ * Options: -Dcorpus=dim21,dim26 -Dmodels=PROPAGATOR,SUBCIRCUIT -Dlimit=20, the
+ * subCircuit model runs into the limit on these grids in either mode
+ */
+public class EvalLargeGrid {
+
+	public static void main(String[] args) {
+		String[] corpus = System.getProperty("corpus", "dim21,dim26").split(",");
+		String[] models = System.getProperty("models", "PROPAGATOR").split(",");
+		int limit = Integer.getInteger("limit", 20);
+		for (String name : models) {
+			SLLoopModel loopModel = SLLoopModel.valueOf(name.trim());
+			for (String fname : corpus) {
+				compare("src/test/java/com/puzzle/resources/" + fname.trim(), loopModel, limit);
+			}
+		}
+	}
+
+	public static void compare(String fname, SLLoopModel loopModel, int limit) {
+		List<int[][]> puzzles = EvalEngines.readPuzzles(fname);
+		double[][] seconds = new double[2][puzzles.size()];
+		int[] stopped = new int[2];
+		long restarts = 0;
+		long nogoods = 0;
+		for (int p = 0; p < puzzles.size(); p++) {
+			int[][] count = puzzles.get(p);
+			int n = count.length + 1;
+			StringBuilder line = new StringBuilder(String.format("%s #%d", fname, p));
+			for (int mode = 0; mode < 2; mode++) {
+				long start = System.nanoTime();
+				SLSolve sl = new SLSolve(n, count, false, loopModel);
+				sl.setLargeGrid(mode == 1);
+				sl.presolve();
+				sl.limitTime(limit + " s");
+				SLUniqueness result = sl.uniqueness();
+				seconds[mode][p] = sl.isStopped() ? limit : (System.nanoTime() - start) / 1e9;
+				stopped[mode] += sl.isStopped() ? 1 : 0;
+				restarts += sl.getRestartCount();
+				nogoods += sl.getNogoodCount();
+				line.append(String.format("  %s %s %.3fs", mode == 1 ? "large grid" : "default", result,
+						seconds[mode][p]));
+				if (mode == 1) {
+					line.append(String.format(" (%d restarts, %d nogoods)", sl.getRestartCount(), sl.getNogoodCount()));
+				}
+			}
+			System.out.println(line);
+		}
+		System.out.println(String.format(
+				"%s %s: %d puzzles, default %d stopped, median %.3fs; large grid %d stopped, median %.3fs, %d restarts, %d nogoods",
+				fname, loopModel, puzzles.size(), stopped[0], median(seconds[0]), stopped[1], median(seconds[1]),
+				restarts, nogoods));
+	}
+
+	private static double median(double[] values) {
+		if (values.length == 0) {
+			return 0.0;
+		}
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		int mid = sorted.length / 2;
+		return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+	}
+}
@@ -0,0 +1,71 @@
+package com.puzzle.core;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares the subCircuit loop model against the single loop propagator on the
+ * stored puzzles, with the pattern tables posted in both
+ */
+public class EvalLoop {
+
+	private static final String LIMIT = "60 s"; // per solve
+
+	public static void main(String[] args) {
+		compare("src/test/java/com/puzzle/resources/dim11");
+		compare("src/test/java/com/puzzle/resources/dim16");
+		compare("src/test/java/com/puzzle/resources/dim21");
+	}
+
+	public static void compare(String fname) {
+		long circuitNodes = 0;
+		long loopNodes = 0;
+		double circuitTime = 0.0;
+		double loopTime = 0.0;
+		int mismatches = 0;
+		int circuitStopped = 0;
+		int loopStopped = 0;
+		List<int[][]> puzzles = EvalEngines.readPuzzles(fname);
+		for (int[][] count : puzzles) {
+			int n = count.length + 1;
+
+			long start = System.nanoTime();
+			SLSolve circuit = new SLSolve(n, count, false, SLLoopModel.SUBCIRCUIT);
+			circuit.rules();
+			circuit.limitTime(LIMIT);
+			boolean circuitSolved = circuit.solve();
+			Set<Integer> circuitLoop = circuitSolved ? EvalEngines.loopEdges(n, circuit.getSolution()) : null;
+			double circuitSeconds = (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			SLSolve loop = new SLSolve(n, count, false, SLLoopModel.PROPAGATOR);
+			loop.rules();
+			loop.limitTime(LIMIT);
+			boolean loopSolved = loop.solve();
+			Set<Integer> loopLoop = loopSolved ? EvalEngines.loopEdges(n, loop.getSolution()) : null;
+			double loopSeconds = (System.nanoTime() - start) / 1e9;
+
+			circuitNodes += circuit.getNodeCount();
+			loopNodes += loop.getNodeCount();
+			circuitTime += circuitSeconds;
+			loopTime += loopSeconds;
+			String result;
+			if (circuit.isStopped() || loop.isStopped()) {
+				circuitStopped += circuit.isStopped() ? 1 : 0;
+				loopStopped += loop.isStopped() ? 1 : 0;
+				result = "limit reached";
+			} else if (circuitSolved == loopSolved && (!circuitSolved || circuitLoop.equals(loopLoop))) {
+				result = "same";
+			} else {
+				mismatches++;
+				result = "DIFFERENT";
+			}
+			System.out.println(String.format("%s n=%d subCircuit %d nodes %.3fs, propagator %d nodes %.3fs %s", fname,
+					n, circuit.getNodeCount(), circuitSeconds, loop.getNodeCount(), loopSeconds, result));
+		}
+		System.out.println(String.format(
+				"%s: %d puzzles, subCircuit %d nodes %.3fs (%d at limit), propagator %d nodes %.3fs (%d at limit), %d mismatches",
+				fname, puzzles.size(), circuitNodes, circuitTime, circuitStopped, loopNodes, loopTime, loopStopped,
+				mismatches));
+	}
+}
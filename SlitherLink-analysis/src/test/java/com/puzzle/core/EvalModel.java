@@ -0,0 +1,45 @@
+package com.puzzle.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures model construction time and retained heap per solver model on
+ * empty grids of increasing size
+ */
+public class EvalModel {
+
+	private static final int MODELS = 10;
+
+	public static void main(String[] args) {
+		for (int n : new int[] { 11, 16, 21, 31 }) {
+			int[][] count = new int[n - 1][n - 1];
+			for (int[] row : count) {
+				Arrays.fill(row, -1);
+			}
+			// warm up
+			new SLSolve(n, count, false);
+
+			List<SLSolve> models = new ArrayList<>();
+			long before = usedHeap();
+			long start = System.nanoTime();
+			for (int i = 0; i < MODELS; i++) {
+				models.add(new SLSolve(n, count, false));
+			}
+			double millis = (System.nanoTime() - start) / 1e6 / MODELS;
+			long bytes = (usedHeap() - before) / MODELS;
+			System.out.println(String.format("n=%d build %.1f ms, heap %.2f MB per model", n, millis,
+					bytes / (1024.0 * 1024.0)));
+			models.clear();
+		}
+	}
+
+	private static long usedHeap() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return rt.totalMemory() - rt.freeMemory();
+	}
+}
@@ -0,0 +1,59 @@
+package com.puzzle.core;
+
+import java.util.List;
+
+/**
+ * Times the uniqueness check of each portfolio member alone against the race
+ * of all of them, then prints which member won per grid size. Choco members
+ * alone stop at the time limit.
+ */
+public class EvalPortfolio {
+
+	private static final String LIMIT = "60 s"; // per Choco solve alone
+
+	public static void main(String[] args) {
+		compare("src/test/java/com/puzzle/resources/dim11");
+		compare("src/test/java/com/puzzle/resources/dim16");
+		System.out.println("wins " + SLPortfolio.getWins());
+	}
+
+	public static void compare(String fname) {
+		List<SLEngineType> members = SLPortfolio.getDefaultMembers();
+		double[] alone = new double[members.size()];
+		double raced = 0.0;
+		int mismatches = 0;
+		List<int[][]> puzzles = EvalEngines.readPuzzles(fname);
+		for (int[][] count : puzzles) {
+			int n = count.length + 1;
+			SLUniqueness expected = null;
+			StringBuilder line = new StringBuilder(String.format("%s n=%d", fname, n));
+			for (int k = 0; k < members.size(); k++) {
+				long start = System.nanoTime();
+				SLEngine sl = members.get(k).create(n, count);
+				sl.rules();
+				if (sl instanceof SLSolve) {
+					((SLSolve) sl).limitTime(LIMIT);
+				}
+				SLUniqueness answer = sl.uniqueness();
+				double seconds = (System.nanoTime() - start) / 1e9;
+				alone[k] += seconds;
+				expected = expected == null ? answer : expected;
+				mismatches += answer == expected ? 0 : 1;
+				line.append(String.format(", %s %.3fs", members.get(k), seconds));
+			}
+			long start = System.nanoTime();
+			SLPortfolio portfolio = new SLPortfolio(n, count);
+			portfolio.rules();
+			SLUniqueness answer = portfolio.uniqueness();
+			double seconds = (System.nanoTime() - start) / 1e9;
+			raced += seconds;
+			mismatches += answer == expected ? 0 : 1;
+			System.out.println(line.append(String.format(", portfolio %.3fs won by %s", seconds, portfolio.getWinner())));
+		}
+		StringBuilder total = new StringBuilder(String.format("%s: %d puzzles", fname, puzzles.size()));
+		for (int k = 0; k < members.size(); k++) {
+			total.append(String.format(", %s %.3fs", members.get(k), alone[k]));
+		}
+		System.out.println(total.append(String.format(", portfolio %.3fs, %d mismatches", raced, mismatches)));
+	}
+}
@@ -0,0 +1,76 @@
+package com.puzzle.core;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares clue reduction checked on a new engine per removal against the
+ * reduction session, from the full clues of the loops of the stored puzzles.
+ *
+ * Options: -Dpuzzles=5 per file
+ */
+public class EvalReduction {
+
+	public static void main(String[] args) {
+		int limit = Integer.getInteger("puzzles", 5);
+		compare("src/test/java/com/puzzle/resources/dim8", SLEngineType.CHOCO, limit);
+		compare("src/test/java/com/puzzle/resources/dim11", SLEngineType.CHOCO_LOOP, limit);
+		compare("src/test/java/com/puzzle/resources/dim16", SLEngineType.SAT, limit);
+		compare("src/test/java/com/puzzle/resources/dim21", SLEngineType.SAT, limit);
+	}
+
+	public static void compare(String fname, SLEngineType engine, int limit) {
+		PrintStream out = System.out;
+		PrintStream quiet = new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+		});
+		double freshTime = 0.0;
+		double sessionTime = 0.0;
+		int different = 0;
+		List<int[][]> puzzles = EvalEngines.readPuzzles(fname);
+		puzzles = puzzles.subList(0, Math.min(limit, puzzles.size()));
+		for (int[][] count : puzzles) {
+			int n = count.length + 1;
+			SLSatSolve reference = new SLSatSolve(n, count);
+			reference.solve();
+			int[] loop = reference.getSolution();
+			int[][] full = SLGrid.of(n).loopClues(loop);
+
+			System.setOut(quiet);
+			long start = System.nanoTime();
+			SLGen fresh = new SLGenImproved(n, "difficult", 1L, false);
+			fresh.setEngine(engine);
+			fresh.setIncremental(false);
+			int[][] freshPuzzle = fresh.reduce(copy(full), loop);
+			double freshSeconds = (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			SLGen session = new SLGenImproved(n, "difficult", 1L, false);
+			session.setEngine(engine);
+			int[][] sessionPuzzle = session.reduce(copy(full), loop);
+			double sessionSeconds = (System.nanoTime() - start) / 1e9;
+			System.setOut(out);
+
+			boolean same = Arrays.deepEquals(freshPuzzle, sessionPuzzle);
+			different += same ? 0 : 1;
+			freshTime += freshSeconds;
+			sessionTime += sessionSeconds;
+			System.out.println(String.format("%s n=%d %s new engine per check %.3fs, session %.3fs %s", fname, n,
+					engine, freshSeconds, sessionSeconds, same ? "same" : "DIFFERENT"));
+		}
+		System.out.println(String.format("%s %s: %d puzzles, new engine per check %.3fs, session %.3fs, %d different",
+				fname, engine, puzzles.size(), freshTime, sessionTime, different));
+	}
+
+	private static int[][] copy(int[][] count) {
+		int[][] copy = new int[count.length][];
+		for (int i = 0; i < count.length; i++) {
+			copy[i] = count[i].clone();
+		}
+		return copy;
+	}
+}
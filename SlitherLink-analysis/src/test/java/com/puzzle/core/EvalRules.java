@@ -0,0 +1,47 @@
+package com.puzzle.core;
+
+import java.util.List;
+
+/**
+ * Compares search nodes with and without the pattern table rules on the stored
+ * puzzles
+ */
+public class EvalRules {
+
+	public static void main(String[] args) {
+		compare("src/test/java/com/puzzle/resources/dim8");
+		compare("src/test/java/com/puzzle/resources/dim11");
+	}
+
+	public static void compare(String fname) {
+		long plainNodes = 0;
+		long rulesNodes = 0;
+		double plainTime = 0.0;
+		double rulesTime = 0.0;
+		List<int[][]> puzzles = EvalEngines.readPuzzles(fname);
+		for (int[][] count : puzzles) {
+			int n = count.length + 1;
+
+			long start = System.nanoTime();
+			SLSolve plain = new SLSolve(n, count, false);
+			boolean plainSolved = plain.solve();
+			double plainSeconds = (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			SLSolve rules = new SLSolve(n, count, false);
+			rules.rules();
+			boolean rulesSolved = rules.solve();
+			double rulesSeconds = (System.nanoTime() - start) / 1e9;
+
+			plainNodes += plain.getNodeCount();
+			rulesNodes += rules.getNodeCount();
+			plainTime += plainSeconds;
+			rulesTime += rulesSeconds;
+			System.out.println(String.format("%s n=%d no rules %d nodes %.3fs %s, rules %d nodes %.3fs %s", fname, n,
+					plain.getNodeCount(), plainSeconds, plainSolved ? "solved" : "UNSOLVED", rules.getNodeCount(),
+					rulesSeconds, rulesSolved ? "solved" : "UNSOLVED"));
+		}
+		System.out.println(String.format("%s: %d puzzles, no rules %d nodes %.3fs, rules %d nodes %.3fs", fname,
+				puzzles.size(), plainNodes, plainTime, rulesNodes, rulesTime));
+	}
+}
@@ -0,0 +1,71 @@
+package com.puzzle.core;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Benchmarks the SAT engine against the Choco path on the stored puzzles,
+ * timing a solve and a uniqueness check as the generators run them
+ */
+public class EvalSat {
+
+	private static final String LIMIT = "60 s"; // per Choco solve
+
+	public static void main(String[] args) {
+		compare("src/test/java/com/puzzle/resources/dim11");
+		compare("src/test/java/com/puzzle/resources/dim16");
+		compare("src/test/java/com/puzzle/resources/dim21");
+		compare("src/test/java/com/puzzle/resources/dim31");
+	}
+
+	public static void compare(String fname) {
+		double chocoTime = 0.0;
+		double satTime = 0.0;
+		int chocoStopped = 0;
+		int mismatches = 0;
+		List<int[][]> puzzles = EvalEngines.readPuzzles(fname);
+		for (int[][] count : puzzles) {
+			int n = count.length + 1;
+
+			long start = System.nanoTime();
+			SLSolve choco = new SLSolve(n, count, false, SLLoopModel.PROPAGATOR);
+			choco.rules();
+			choco.presolve();
+			choco.limitTime(LIMIT);
+			boolean chocoSolved = choco.solve();
+			Set<Integer> chocoLoop = chocoSolved ? EvalEngines.loopEdges(n, choco.getSolution()) : null;
+			SLSolve check = new SLSolve(n, count, false, SLLoopModel.PROPAGATOR);
+			check.rules();
+			check.presolve();
+			check.limitTime(LIMIT);
+			int[] chocoSolutions = check.genSolutions(3);
+			boolean stopped = choco.isStopped() || check.isStopped();
+			double chocoSeconds = (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			SLEngine sat = SLEngineType.SAT.create(n, count);
+			boolean satSolved = sat.solve();
+			Set<Integer> satLoop = satSolved ? EvalEngines.loopEdges(n, sat.getSolution()) : null;
+			int[] satSolutions = SLEngineType.SAT.create(n, count).genSolutions(3);
+			double satSeconds = (System.nanoTime() - start) / 1e9;
+
+			chocoTime += chocoSeconds;
+			satTime += satSeconds;
+			String result;
+			if (stopped) {
+				chocoStopped++;
+				result = "choco limit reached";
+			} else if (chocoSolved == satSolved && (!chocoSolved || chocoLoop.equals(satLoop))
+					&& chocoSolutions[0] == satSolutions[0]) {
+				result = "same";
+			} else {
+				mismatches++;
+				result = "DIFFERENT";
+			}
+			System.out.println(String.format("%s n=%d choco %.3fs (%d nodes) sat %.3fs (%d decisions) %s", fname, n,
+					chocoSeconds, choco.getNodeCount(), satSeconds, sat.getNodeCount(), result));
+		}
+		System.out.println(String.format("%s: %d puzzles, choco %.3fs (%d at limit), sat %.3fs, %d mismatches", fname,
+				puzzles.size(), chocoTime, chocoStopped, satTime, mismatches));
+	}
+}
@@ -0,0 +1,133 @@
+package com.puzzle.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tuning harness for the search strategies. Runs the uniqueness check the
+ * generator makes, on Choco models with the deduced edges fixed, for every
+ * catalog strategy over the stored puzzles and writes the best one per loop
+ * model, grid size and difficulty to strategies.properties, keeping the
+ * entries it did not tune.
+ *
+ * Strategies are raced: after each puzzle those more than twice as slow as the
+ * best so far drop out. Runs stopped at the limit score twice the limit.
+ *
+ * Options: -Dcorpus=dim8,dim11 -Dmodels=SUBCIRCUIT,PROPAGATOR -Dlimit=10
+ * -Dout=src/main/resources/strategies.properties
+ */
+public class EvalStrategies {
+
+	public static void main(String[] args) throws IOException {
+		String[] corpus = System.getProperty("corpus", "dim8,dim11,dim16").split(",");
+		String[] models = System.getProperty("models", "SUBCIRCUIT,PROPAGATOR").split(",");
+		int limit = Integer.getInteger("limit", 10);
+		Path out = Paths.get(System.getProperty("out", "src/main/resources/strategies.properties"));
+
+		// entries of the current table for other keys are kept with their notes
+		Map<String, String> best = new TreeMap<>();
+		Map<String, String> notes = new TreeMap<>();
+		if (Files.exists(out)) {
+			String note = "";
+			for (String line : Files.readAllLines(out)) {
+				int eq = line.indexOf('=');
+				if (line.startsWith("#")) {
+					note = line.substring(1).trim();
+				} else if (eq != -1) {
+					best.put(line.substring(0, eq).trim(), line.substring(eq + 1).trim());
+					notes.put(line.substring(0, eq).trim(), note);
+				}
+			}
+		}
+		for (String name : models) {
+			SLLoopModel loopModel = SLLoopModel.valueOf(name.trim());
+			for (String fname : corpus) {
+				Map<String, List<int[][]>> groups = new LinkedHashMap<>();
+				for (int[][] count : EvalEngines.readPuzzles("src/test/java/com/puzzle/resources/" + fname.trim())) {
+					String key = SLStrategy.key(loopModel, count.length + 1, SLStrategy.difficulty(count));
+					groups.computeIfAbsent(key, k -> new ArrayList<>()).add(count);
+				}
+				for (Map.Entry<String, List<int[][]>> group : groups.entrySet()) {
+					tune(group.getKey(), loopModel, group.getValue(), limit, best, notes);
+				}
+			}
+		}
+
+		try (Writer writer = Files.newBufferedWriter(out)) {
+			writer.write("# Search strategy per loop model, grid size and difficulty, written by EvalStrategies.\n");
+			writer.write("# Format: heuristic[+last_conflict][+luby|+geometric][/successors|/edges]\n");
+			for (Map.Entry<String, String> entry : best.entrySet()) {
+				writer.write("# " + notes.get(entry.getKey()) + "\n");
+				writer.write(entry.getKey() + " = " + entry.getValue() + "\n");
+			}
+		}
+		System.out.println("wrote " + out);
+	}
+
+	private static void tune(String key, SLLoopModel loopModel, List<int[][]> puzzles, int limit,
+			Map<String, String> best, Map<String, String> notes) {
+		List<SLStrategy> alive = new ArrayList<>();
+		for (SLStrategy strategy : SLStrategy.catalog()) {
+			// the edge model branches on edges whatever the strategy says
+			if (loopModel == SLLoopModel.SUBCIRCUIT || strategy.getBranching() == SLStrategy.Branching.EDGES) {
+				alive.add(strategy);
+			}
+		}
+		Map<SLStrategy, Double> score = new LinkedHashMap<>();
+		for (SLStrategy strategy : alive) {
+			score.put(strategy, 0.0);
+		}
+		double defaultScore = 0.0;
+		for (int[][] count : puzzles) {
+			int n = count.length + 1;
+			defaultScore += run(loopModel, n, count, SLStrategy.DEFAULT, limit);
+			for (SLStrategy strategy : alive) {
+				score.put(strategy, score.get(strategy) + run(loopModel, n, count, strategy, limit));
+			}
+			double min = Double.MAX_VALUE;
+			for (SLStrategy strategy : alive) {
+				min = Math.min(min, score.get(strategy));
+			}
+			List<SLStrategy> next = new ArrayList<>();
+			for (SLStrategy strategy : alive) {
+				if (score.get(strategy) <= 2 * min + 0.05) {
+					next.add(strategy);
+				}
+			}
+			alive = next;
+			System.out.println(String.format("%s: %d strategies left, best %.3fs", key, alive.size(), min));
+		}
+		SLStrategy winner = alive.get(0);
+		for (SLStrategy strategy : alive) {
+			if (score.get(strategy) < score.get(winner)) {
+				winner = strategy;
+			}
+		}
+		best.put(key, winner.toString());
+		notes.put(key, String.format("%d puzzles: %.3fs, default %s %.3fs", puzzles.size(), score.get(winner),
+				SLStrategy.DEFAULT, defaultScore));
+		System.out.println(key + " = " + winner + " # " + notes.get(key));
+	}
+
+	/**
+	 * @return seconds of one uniqueness check, twice the limit when stopped
+	 */
+	private static double run(SLLoopModel loopModel, int n, int[][] count, SLStrategy strategy, int limit) {
+		long start = System.nanoTime();
+		SLSolve sl = new SLSolve(n, count, false, loopModel);
+		sl.setStrategy(strategy);
+		sl.presolve();
+		sl.limitTime(limit + " s");
+		sl.uniqueness();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		return sl.isStopped() ? 2 * limit : seconds;
+	}
+}
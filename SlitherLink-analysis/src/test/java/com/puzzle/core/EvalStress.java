@@ -0,0 +1,94 @@
+package com.puzzle.core;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+
+/**
+ * Stress test of the large-grid path: generates puzzles of each size and
+ * solves them again, reporting times and the peak heap. Run it with the heap
+ * of the service:
+ *
+ * java -Xmx512m -cp ... com.puzzle.core.EvalStress
+ *
+ * Options: -Dsizes=31,41,51 -Dpuzzles=2 -Ddiff=medium -Dseed=1
+ */
+public class EvalStress {
+
+	public static void main(String[] args) {
+		String[] sizes = System.getProperty("sizes", "31,41,51").split(",");
+		int puzzles = Integer.getInteger("puzzles", 2);
+		String diff = System.getProperty("diff", "medium");
+		long seed = Long.getLong("seed", 1L);
+		System.out.println(String.format("max heap %d MB", Runtime.getRuntime().maxMemory() >> 20));
+		for (String size : sizes) {
+			int n = Integer.parseInt(size.trim());
+			for (int p = 0; p < puzzles; p++) {
+				stress(n, diff, seed + p);
+			}
+		}
+	}
+
+	public static void stress(int n, String diff, long seed) {
+		PrintStream out = System.out;
+		PrintStream quiet = new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+		});
+		System.gc();
+		resetPeaks();
+		long[] reported = { System.nanoTime() };
+		System.setOut(quiet);
+		long genStart = System.nanoTime();
+		SLGen gen = new SLGen(n, diff, seed, false);
+		gen.setProgress((phase, done, total, clues) -> {
+			// one line per 10 s, the shape of the stream a client sees
+			if (System.nanoTime() - reported[0] > 10_000_000_000L) {
+				reported[0] = System.nanoTime();
+				out.println(String.format("  %dx%d %s %d/%d, %d clues, %.0fs", n - 1, n - 1, phase, done, total,
+						clues, (reported[0] - genStart) / 1e9));
+			}
+		});
+		int[][] count = gen.generate();
+		double genSeconds = (System.nanoTime() - genStart) / 1e9;
+
+		long start = System.nanoTime();
+		SLEngine sl = SLEngineType.CHOCO.forGrid(n).create(n, count);
+		boolean solved = sl.solve();
+		double solveSeconds = (System.nanoTime() - start) / 1e9;
+		System.setOut(out);
+
+		int clues = 0;
+		for (int[] row : count) {
+			for (int clue : row) {
+				clues += clue != -1 ? 1 : 0;
+			}
+		}
+		System.out.println(String.format("%dx%d %s seed %d: %d clues, generate %.1fs, solve %.1fs %s, peak heap %d MB",
+				n - 1, n - 1, diff, seed, clues, genSeconds, solveSeconds, solved ? "" : "FAILED", peakHeap() >> 20));
+	}
+
+	private static void resetPeaks() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	/**
+	 * @return sum of the peak usage of the heap pools since the last reset
+	 */
+	private static long peakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+}
@@ -0,0 +1,65 @@
+package com.puzzle.core;
+
+import java.util.List;
+
+/**
+ * Compares a uniqueness check done by counting three directed tours against
+ * the oriented check that stops at the second distinct loop, on the subCircuit
+ * model with the pattern tables posted
+ */
+public class EvalSymmetry {
+
+	private static final String LIMIT = "60 s"; // per solve
+
+	public static void main(String[] args) {
+		compare("src/test/java/com/puzzle/resources/dim8");
+		compare("src/test/java/com/puzzle/resources/dim11");
+	}
+
+	public static void compare(String fname) {
+		long countNodes = 0;
+		long orientedNodes = 0;
+		double countTime = 0.0;
+		double orientedTime = 0.0;
+		int mismatches = 0;
+		int stopped = 0;
+		List<int[][]> puzzles = EvalEngines.readPuzzles(fname);
+		for (int[][] count : puzzles) {
+			int n = count.length + 1;
+
+			long start = System.nanoTime();
+			SLSolve counting = new SLSolve(n, count, false);
+			counting.rules();
+			counting.limitTime(LIMIT);
+			int[] ans = counting.genSolutions(3);
+			double countSeconds = (System.nanoTime() - start) / 1e9;
+
+			start = System.nanoTime();
+			SLSolve oriented = new SLSolve(n, count, false);
+			oriented.rules();
+			oriented.limitTime(LIMIT);
+			SLUniqueness unique = oriented.uniqueness();
+			double orientedSeconds = (System.nanoTime() - start) / 1e9;
+
+			countNodes += counting.getNodeCount();
+			orientedNodes += oriented.getNodeCount();
+			countTime += countSeconds;
+			orientedTime += orientedSeconds;
+			String result;
+			if (counting.isStopped() || oriented.isStopped()) {
+				stopped++;
+				result = "limit reached";
+			} else if (SLUniqueness.of((ans[0] + 1) / 2) == unique) {
+				result = unique.toString();
+			} else {
+				mismatches++;
+				result = "DIFFERENT";
+			}
+			System.out.println(String.format("%s n=%d genSolutions(3) %d nodes %.3fs, uniqueness %d nodes %.3fs %s",
+					fname, n, counting.getNodeCount(), countSeconds, oriented.getNodeCount(), orientedSeconds, result));
+		}
+		System.out.println(String.format(
+				"%s: %d puzzles, genSolutions(3) %d nodes %.3fs, uniqueness %d nodes %.3fs, %d at limit, %d mismatches",
+				fname, puzzles.size(), countNodes, countTime, orientedNodes, orientedTime, stopped, mismatches));
+	}
+}
@@ -0,0 +1,72 @@
+package com.puzzle.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.*;
+
+@DisplayName("SL Bit Solve")
+public class SLBitSolveTest {
+	private static int dim;
+	private static int[][] count;
+	private static int[] countSolution;
+	private static int[][] falseCount;
+	private static SLBitSolve s;
+
+	@BeforeAll
+	static void beforeAll() {
+		dim = 5;
+		count = new int[][] { { -1, 3, -1, 3 }, { -1, 0, -1, 2 }, { -1, 1, -1, 2 }, { 1, 2, 2, -1 } };
+		countSolution = new int[] { 0, 2, 7, 4, 9, 6, 1, 8, 3, 14, 5, 10, 12, 18, 13, 15, 11, 17, 23, 19, 20, 16, 21,
+				22, 24 };
+		falseCount = new int[][] { { 3, 3, 3, 3 }, { 3, 3, 3, 3 }, { -1, 1, -1, 2 }, { 1, 2, 2, -1 } };
+	}
+
+	@BeforeEach
+	void beforeEach() {
+		s = new SLBitSolve(dim, count);
+	}
+
+	@Test
+	@DisplayName("Solve Method Test")
+	void testSolve() {
+		assertEquals(true, s.solve());
+		s = new SLBitSolve(dim, falseCount);
+		assertEquals(false, s.solve());
+	}
+
+	@Test
+	@DisplayName("Get Solution Test")
+	void testGetSolution() {
+		if (s.solve()) {
+			assertArrayEquals(countSolution, s.getSolution());
+		}
+	}
+
+	@Test
+	@DisplayName("Find Number Solutions Test")
+	void testFindNumSolutions() {
+		assertEquals(2, s.findNumSolutions());
+	}
+
+	@Test
+	@DisplayName("Gen Solutions Test")
+	void testGenSolutions() {
+		assertArrayEquals(new int[] { 2, 18 }, s.genSolutions(3));
+	}
+
+	@Test
+	@DisplayName("Same Solution Count As Choco Test")
+	void testAgainstChoco() {
+		for (int n = 2; n <= 4; n++) {
+			int[][] empty = new int[n - 1][n - 1];
+			for (int[] row : empty) {
+				Arrays.fill(row, -1);
+			}
+			assertEquals(new SLSolve(n, empty, false).findNumSolutions(), new SLBitSolve(n, empty).findNumSolutions());
+		}
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.puzzle.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.jupiter.api.*;
+
+@DisplayName("SL Deduce")
+public class SLDeduceTest {
+	private static int dim;
+	private static int[][] count;
+	private static int[] countSolution;
+	private static int[][] fullCount;
+	private static int[][] falseCount;
+
+	@BeforeAll
+	static void beforeAll() {
+		dim = 5;
+		count = new int[][] { { -1, 3, -1, 3 }, { -1, 0, -1, 2 }, { -1, 1, -1, 2 }, { 1, 2, 2, -1 } };
+		countSolution = new int[] { 0, 2, 7, 4, 9, 6, 1, 8, 3, 14, 5, 10, 12, 18, 13, 15, 11, 17, 23, 19, 20, 16, 21,
+				22, 24 };
+		fullCount = new int[][] { { 2, 3, 3, 3 }, { 3, 0, 1, 2 }, { 2, 1, 1, 2 }, { 1, 2, 2, 1 } };
+		falseCount = new int[][] { { 3, 3, 3, 3 }, { 3, 3, 3, 3 }, { -1, 1, -1, 2 }, { 1, 2, 2, -1 } };
+	}
+
+	@Test
+	@DisplayName("Deduced Edges Match Solution Test")
+	void testDeduce() {
+		SLDeduce d = new SLDeduce(dim, count);
+		assertEquals(true, d.deduce());
+		SLGrid grid = SLGrid.of(dim);
+		for (int e = 0; e < grid.getNumEdges(); e++) {
+			int from = grid.edgeFrom[e];
+			int to = grid.edgeTo[e];
+			boolean used = countSolution[from] == to || countSolution[to] == from;
+			if (d.getEdgeState(e) != SLDeduce.UNKNOWN) {
+				assertEquals(used ? SLDeduce.YES : SLDeduce.NO, d.getEdgeState(e));
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Full Count Solved Test")
+	void testSolved() {
+		SLDeduce d = new SLDeduce(dim, fullCount);
+		assertEquals(true, d.deduce());
+		assertEquals(true, d.isSolved());
+		assertEquals(18, d.getLoopLength());
+		assertArrayEquals(countSolution, d.getSolution());
+	}
+
+	@Test
+	@DisplayName("Contradiction Test")
+	void testContradiction() {
+		assertEquals(false, new SLDeduce(dim, falseCount).deduce());
+	}
+
+	@Test
+	@DisplayName("Presolve Keeps Solution Test")
+	void testPresolve() {
+		SLSolve s = new SLSolve(dim, count, false);
+		assertEquals(true, s.presolve());
+		assertEquals(true, s.solve());
+		assertArrayEquals(countSolution, s.getSolution());
+	}
+
+}
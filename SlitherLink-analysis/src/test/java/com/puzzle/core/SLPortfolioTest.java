@@ -0,0 +1,70 @@
+package com.puzzle.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.*;
+
+@DisplayName("SL Portfolio")
+public class SLPortfolioTest {
+	private static int dim;
+	private static int[][] count;
+	private static int[] countSolution;
+	private static int[][] falseCount;
+	private static SLPortfolio s;
+
+	@BeforeAll
+	static void beforeAll() {
+		dim = 5;
+		count = new int[][] { { -1, 3, -1, 3 }, { -1, 0, -1, 2 }, { -1, 1, -1, 2 }, { 1, 2, 2, -1 } };
+		countSolution = new int[] { 0, 2, 7, 4, 9, 6, 1, 8, 3, 14, 5, 10, 12, 18, 13, 15, 11, 17, 23, 19, 20, 16, 21,
+				22, 24 };
+		falseCount = new int[][] { { 3, 3, 3, 3 }, { 3, 3, 3, 3 }, { -1, 1, -1, 2 }, { 1, 2, 2, -1 } };
+	}
+
+	@BeforeEach
+	void beforeEach() {
+		s = new SLPortfolio(dim, count);
+		s.rules();
+	}
+
+	@Test
+	@DisplayName("Solve Method Test")
+	void testSolve() {
+		assertEquals(true, s.solve());
+		assertArrayEquals(countSolution, s.getSolution());
+		assertTrue(SLPortfolio.getDefaultMembers().contains(s.getWinner()));
+		assertTrue(SLPortfolio.getWins().containsKey("4x4 " + s.getWinner()));
+		assertEquals(false, new SLPortfolio(dim, falseCount).solve());
+	}
+
+	@Test
+	@DisplayName("Counting Test")
+	void testCounting() {
+		assertEquals(2, s.findNumSolutions());
+		assertArrayEquals(new int[] { 2, 18 }, s.genSolutions(3));
+		assertEquals(SLUniqueness.UNIQUE, s.uniqueness());
+		assertEquals(null, s.findAlternative(countSolution));
+	}
+
+	@Test
+	@DisplayName("Cancel Test")
+	void testCancel() throws InterruptedException {
+		int[][] empty = new int[9][9];
+		for (int[] row : empty) {
+			Arrays.fill(row, -1);
+		}
+		SLPortfolio p = new SLPortfolio(10, empty,
+				Arrays.asList(SLEngineType.CHOCO, SLEngineType.SAT, SLEngineType.BITBOARD));
+		Thread counting = new Thread(p::findNumSolutions);
+		counting.start();
+		Thread.sleep(500);
+		p.cancel();
+		counting.join(10000);
+		assertEquals(false, counting.isAlive());
+	}
+
+}
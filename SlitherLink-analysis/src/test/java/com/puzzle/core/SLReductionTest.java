@@ -0,0 +1,60 @@
+package com.puzzle.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.jupiter.api.*;
+
+@DisplayName("SL Reduction")
+public class SLReductionTest {
+	private static int dim;
+	private static int[][] count;
+	private static int[] countSolution;
+	private static int[][] loose;
+
+	@BeforeAll
+	static void beforeAll() {
+		dim = 5;
+		count = new int[][] { { -1, 3, -1, 3 }, { -1, 0, -1, 2 }, { -1, 1, -1, 2 }, { 1, 2, 2, -1 } };
+		countSolution = new int[] { 0, 2, 7, 4, 9, 6, 1, 8, 3, 14, 5, 10, 12, 18, 13, 15, 11, 17, 23, 19, 20, 16, 21,
+				22, 24 };
+		loose = new int[][] { { -1, 3, -1, 3 }, { -1, 0, -1, 2 }, { -1, -1, -1, -1 }, { -1, -1, -1, -1 } };
+	}
+
+	@Test
+	@DisplayName("Session Test")
+	void testSession() {
+		for (SLEngineType engine : new SLEngineType[] { SLEngineType.CHOCO, SLEngineType.CHOCO_LOOP,
+				SLEngineType.SAT }) {
+			SLReduction session = SLReduction.open(engine, dim, count, countSolution);
+			assertArrayEquals(new int[] { 2, 18 }, session.countSolutions(count));
+			assertArrayEquals(new int[] { 3, 0 }, session.countSolutions(loose));
+			// nothing of a check carries over to the next one
+			assertArrayEquals(new int[] { 2, 18 }, session.countSolutions(count));
+			assertEquals(false, session.covers(new int[][] { { 2, 3, -1, 3 }, { -1, 0, -1, 2 }, { -1, 1, -1, 2 },
+					{ 1, 2, 2, -1 } }));
+		}
+		assertEquals(null, SLReduction.open(SLEngineType.BITBOARD, dim, count, countSolution));
+	}
+
+	@Test
+	@DisplayName("Single Removals Test")
+	void testRemovals() {
+		for (SLEngineType engine : new SLEngineType[] { SLEngineType.CHOCO, SLEngineType.CHOCO_LOOP,
+				SLEngineType.SAT }) {
+			SLReduction session = SLReduction.open(engine, dim, count, countSolution);
+			for (int i = 0; i < dim - 1; i++) {
+				for (int j = 0; j < dim - 1; j++) {
+					if (count[i][j] == -1) {
+						continue;
+					}
+					int clue = count[i][j];
+					count[i][j] = -1;
+					boolean unique = engine.create(dim, count).findAlternative(countSolution) == null;
+					assertEquals(unique, session.countSolutions(count)[0] == 2);
+					count[i][j] = clue;
+				}
+			}
+		}
+	}
+}
@@ -86,7 +86,56 @@ public class SLSolveTest {
 	    void testRules() {
 	    	s.rules();
 	        if(s.solve()) {
-	        	assertEquals(7,s.getNodeCount());
+	        	assertEquals(6,s.getNodeCount());
+	        }
+	    }
+	    @Test
+	    @DisplayName("Loop Propagator Test")
+	    void testLoopPropagator() {
+	        s=new SLSolve(dim,count,false,SLLoopModel.PROPAGATOR);
+	        assertEquals(true,s.solve());
+	        assertArrayEquals(countSolution,s.getSolution());
+	        assertEquals(2,new SLSolve(dim,count,false,SLLoopModel.PROPAGATOR).findNumSolutions());
+	        assertArrayEquals(new int[] {2,18},new SLSolve(dim,count,false,SLLoopModel.PROPAGATOR).genSolutions(3));
+	        assertEquals(false,new SLSolve(dim,falseCount,false,SLLoopModel.PROPAGATOR).solve());
+	    }
+	    @Test
+	    @DisplayName("Uniqueness Test")
+	    void testUniqueness() {
+	        assertEquals(SLUniqueness.UNIQUE,s.uniqueness());
+	        assertArrayEquals(countSolution,s.getSolution());
+	        s=new SLSolve(dim,count,false);
+	        s.breakSymmetry();
+	        assertArrayEquals(new int[] {2,18},s.genSolutions(3));
+	        assertEquals(SLUniqueness.NONE,new SLSolve(dim,falseCount,false).uniqueness());
+	        int[][] empty=new int[][]{{-1,-1,-1,-1},{-1,-1,-1,-1},{-1,-1,-1,-1},{-1,-1,-1,-1}};
+	        assertEquals(SLUniqueness.MULTIPLE,new SLSolve(dim,empty,false).uniqueness());
+	        assertEquals(SLUniqueness.UNIQUE,new SLBitSolve(dim,count).uniqueness());
+	    }
+	    @Test
+	    @DisplayName("Alternative Loop Test")
+	    void testFindAlternative() {
+	        assertEquals(null,s.findAlternative(countSolution));
+	        assertEquals(null,new SLSolve(dim,count,false,SLLoopModel.PROPAGATOR).findAlternative(countSolution));
+	        assertEquals(null,new SLBitSolve(dim,count).findAlternative(countSolution));
+	        assertEquals(null,new SLSatSolve(dim,count).findAlternative(countSolution));
+	        int[][] loose=new int[][]{{-1,3,-1,3},{-1,0,-1,2},{-1,-1,-1,-1},{-1,-1,-1,-1}};
+	        int[] other=new SLSolve(dim,loose,false).findAlternative(countSolution);
+	        assertEquals(false,java.util.Arrays.equals(countSolution,other));
+	        assertEquals(SLUniqueness.UNIQUE,new SLSolve(dim,count,false).uniqueness());
+	    }
+	    @Test
+	    @DisplayName("Large Grid Test")
+	    void testLargeGrid() {
+	        for (SLLoopModel loopModel : SLLoopModel.values()) {
+	            s=new SLSolve(dim,count,false,loopModel);
+	            s.setLargeGrid(true);
+	            assertEquals(SLUniqueness.UNIQUE,s.uniqueness());
+	            // restarts with nogoods find every loop once
+	            int[][] loose=new int[][]{{-1,3,-1,3},{-1,0,-1,2},{-1,-1,-1,-1},{-1,-1,-1,-1}};
+	            s=new SLSolve(dim,loose,false,loopModel);
+	            s.setLargeGrid(true);
+	            assertEquals(new SLSolve(dim,loose,false,loopModel).findNumSolutions(),s.findNumSolutions());
 	        }
 	    }
 	    
@@ -0,0 +1,58 @@
+package com.puzzle.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.jupiter.api.*;
+
+@DisplayName("SL Strategy")
+public class SLStrategyTest {
+	private static int dim;
+	private static int[][] count;
+	private static int[] countSolution;
+
+	@BeforeAll
+	static void beforeAll() {
+		dim = 5;
+		count = new int[][] { { -1, 3, -1, 3 }, { -1, 0, -1, 2 }, { -1, 1, -1, 2 }, { 1, 2, 2, -1 } };
+		countSolution = new int[] { 0, 2, 7, 4, 9, 6, 1, 8, 3, 14, 5, 10, 12, 18, 13, 15, 11, 17, 23, 19, 20, 16, 21,
+				22, 24 };
+	}
+
+	@Test
+	@DisplayName("Parse Test")
+	void testParse() {
+		for (SLStrategy strategy : SLStrategy.catalog()) {
+			assertEquals(strategy, SLStrategy.parse(strategy.toString()));
+		}
+		assertEquals(SLStrategy.DEFAULT, SLStrategy.parse("min_dom"));
+		assertEquals("dom_wdeg+last_conflict+luby/edges",
+				SLStrategy.parse(" DOM_WDEG + last_conflict + luby / edges ").toString());
+	}
+
+	@Test
+	@DisplayName("Tuned Test")
+	void testTuned() {
+		assertEquals("subcircuit.10x10.medium", SLStrategy.key(SLLoopModel.SUBCIRCUIT, 11, "medium"));
+		assertEquals("easy", SLStrategy.difficulty(count));
+		assertEquals(SLStrategy.DEFAULT, SLStrategy.tuned(SLLoopModel.SUBCIRCUIT, dim, count));
+	}
+
+	@Test
+	@DisplayName("Catalog Test")
+	void testCatalog() {
+		SLGrid grid = SLGrid.of(dim);
+		for (SLLoopModel loopModel : SLLoopModel.values()) {
+			for (SLStrategy strategy : SLStrategy.catalog()) {
+				SLSolve s = new SLSolve(dim, count, false, loopModel);
+				s.setStrategy(strategy);
+				assertEquals(true, s.solve());
+				// either direction of the loop
+				assertArrayEquals(grid.loopEdges(countSolution), grid.loopEdges(s.getSolution()));
+				s = new SLSolve(dim, count, false, loopModel);
+				s.setStrategy(strategy);
+				assertEquals(SLUniqueness.UNIQUE, s.uniqueness());
+			}
+		}
+	}
+}